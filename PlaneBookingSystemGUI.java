@@ -3,12 +3,29 @@ import javax.swing.table.DefaultTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import java.sql.*;
 import database.*;
+import model.CabinLayout;
+import model.FlightLockManager;
+import model.SeatChangeLog;
+import model.SeatGroupFinder;
+import model.SeatHoldManager;
+import model.SeatInventory;
+import model.SeatPreference;
+import java.time.Duration;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.Date;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Pattern;
 
 // --- 1. Interfaces for Abstraction (ISP & DIP) ---
@@ -38,6 +55,7 @@ interface FlightManager {
     List<Flight> getAvailableFlights();
     void displayAvailableFlights(OutputWriter writer); // Can be used for console logs
     boolean bookSeat(Flight flight, String seatId, OutputWriter writer);
+    boolean bookItinerary(List<Flight> legs, List<String> seatIds, OutputWriter writer);
 }
 
 interface PaymentProcessor {
@@ -137,15 +155,25 @@ class Booking {
 class Flight { // Removed IdentifiableEntity as it's no longer an interface after simplification
     private String flightNumber, departureLocation, arrivalLocation;
     private double price;
-    private Set<String> bookedSeats = new HashSet<>();
-    private static final int MAX_ROWS = 14;
-    private static final char[] SEAT_LETTERS = {'A', 'B', 'C', 'D', 'E', 'F'};
+    private final LocalDateTime departureTime; // null when the flight has no schedule
+    private final SeatInventory seats;
 
     public Flight(String flightNum, String departureLoc, String arrivalLoc, double price) {
+        this(flightNum, departureLoc, arrivalLoc, price, CabinLayout.REGIONAL);
+    }
+
+    public Flight(String flightNum, String departureLoc, String arrivalLoc, double price, CabinLayout layout) {
+        this(flightNum, departureLoc, arrivalLoc, price, layout, null);
+    }
+
+    public Flight(String flightNum, String departureLoc, String arrivalLoc, double price, CabinLayout layout,
+                  LocalDateTime departureTime) {
         this.flightNumber = flightNum;
         this.departureLocation = departureLoc;
         this.arrivalLocation = arrivalLoc;
         this.price = price;
+        this.departureTime = departureTime;
+        this.seats = new SeatInventory(layout);
     }
 
     public void displayInfo(OutputWriter writer) {
@@ -153,37 +181,52 @@ class Flight { // Removed IdentifiableEntity as it's no longer an interface afte
     }
 
     public boolean isSeatValid(String seatId) {
-        if (seatId == null || seatId.length() < 2) return false;
-        try {
-            int r = Integer.parseInt(seatId.substring(0, seatId.length() - 1));
-            char l = Character.toUpperCase(seatId.charAt(seatId.length() - 1));
-            if (r < 1 || r > MAX_ROWS) return false;
-            for (char sl : SEAT_LETTERS) if (sl == l) return true;
-            return false;
-        } catch (NumberFormatException e) { return false; }
+        return seats.ordinal(seatId) >= 0;
+    }
+
+    public boolean isSeatBooked(String seatId) { return seats.isBooked(seatId); }
+    // row is 1-based, letterIndex counts seats from the left ignoring aisles; no seat ID is built
+    public boolean isSeatBooked(int row, int letterIndex) {
+        int ordinal = seats.ordinal(row, letterIndex);
+        return ordinal >= 0 && seats.isBooked(ordinal);
+    }
+    public boolean isSeatHeld(int row, int letterIndex) {
+        int ordinal = seats.ordinal(row, letterIndex);
+        return ordinal >= 0 && seats.isHeld(ordinal);
+    }
+    public SeatInventory getSeatInventory() { return seats; }
+    public CabinLayout getCabinLayout() { return seats.getLayout(); }
+    public int getRemainingSeats() { return seats.remaining(); }
+    public long getSeatContentionCount() { return seats.contentionCount(); }
+    public SeatGroupFinder.SeatBlock findAdjacentSeats(int n, SeatPreference... preferences) {
+        return SeatGroupFinder.findAdjacentSeats(seats, n, preferences);
     }
 
     public boolean bookSeat(String seatId, OutputWriter writer) {
-        if (!isSeatValid(seatId)) {
+        int ordinal = seats.ordinal(seatId);
+        if (ordinal < 0) {
             writer.println("Error: Invalid seat format or out of bounds.");
             return false;
         }
-        if (bookedSeats.contains(seatId)) {
+        if (!seats.book(ordinal)) {
             writer.println("Error: Seat " + seatId + " is already booked.");
             return false;
         }
-        bookedSeats.add(seatId);
         writer.println("Seat " + seatId + " booked successfully for flight " + flightNumber + ".");
         return true;
     }
 
     public String getFlightNumber() { return flightNumber; }
+    public LocalDateTime getDepartureTime() { return departureTime; }
+    public boolean isScheduled() { return departureTime != null; }
+    // One flight instance: the number repeats every time it flies, so the departure goes with it
+    public String getInstanceKey() {
+        return FlightLockManager.key(flightNumber, departureTime);
+    }
     public double getPrice() { return price; }
     public String getArrivalLocation() { return arrivalLocation; }
     public String getDepartureLocation() { return departureLocation; }
-    public Set<String> getBookedSeats() { return Collections.unmodifiableSet(bookedSeats); }
-    public static int getMaxRows() { return MAX_ROWS; }
-    public static char[] getSeatLetters() { return SEAT_LETTERS; }
+    public Set<String> getBookedSeats() { return seats.bookedSeatIds(); }
 
     @Override
     public String toString() {
@@ -328,7 +371,10 @@ class ConsoleOutputWriter implements OutputWriter {
 // --- 3. Service Layer (High-level Modules) ---
 
 class SimpleFlightManager implements FlightManager {
+    private static final long ITINERARY_LOCK_MILLIS = 2000;
+
     private List<Flight> availableFlights;
+    private final FlightLockManager flightLocks = new FlightLockManager();
 
     public SimpleFlightManager(List<Flight> initialFlights) {
         this.availableFlights = new ArrayList<>(initialFlights);
@@ -353,10 +399,43 @@ class SimpleFlightManager implements FlightManager {
     }
 
 
+    // Safe to call from many threads at once: the seat is claimed atomically inside Flight
     @Override
     public boolean bookSeat(Flight flight, String seatId, OutputWriter writer) {
         return flight.bookSeat(seatId, writer);
     }
+
+    // Every leg or none; the legs' flights are locked together, not the whole manager
+    @Override
+    public boolean bookItinerary(List<Flight> legs, List<String> seatIds, OutputWriter writer) {
+        if (legs.isEmpty() || legs.size() != seatIds.size()) {
+            writer.println("Error: An itinerary needs one seat per flight.");
+            return false;
+        }
+        List<FlightLockManager.Leg> itinerary = new ArrayList<>();
+        for (int i = 0; i < legs.size(); i++) {
+            Flight flight = legs.get(i);
+            // Locked per flight instance, so the same number on another date does not wait
+            itinerary.add(new FlightLockManager.Leg(flight.getInstanceKey(), flight.getSeatInventory(), seatIds.get(i)));
+        }
+        try {
+            if (!flightLocks.bookItinerary(itinerary, ITINERARY_LOCK_MILLIS, TimeUnit.MILLISECONDS)) {
+                writer.println("Error: Could not book every flight of the itinerary; nothing was booked.");
+                return false;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        for (int i = 0; i < legs.size(); i++) {
+            writer.println("Seat " + seatIds.get(i) + " booked successfully for flight " + legs.get(i).getFlightNumber() + ".");
+        }
+        return true;
+    }
+
+    public FlightLockManager.Stats getLockStats() {
+        return flightLocks.getStats();
+    }
 }
 
 class DefaultPaymentService {
@@ -377,12 +456,10 @@ class DefaultPaymentService {
 
 // Custom Cell Renderer for JTable to color seats
 class SeatTableCellRenderer extends DefaultTableCellRenderer {
-    private Set<String> bookedSeats;
     private Flight currentFlight;
 
     public void setFlight(Flight flight) {
         this.currentFlight = flight;
-        this.bookedSeats = (flight != null) ? flight.getBookedSeats() : Collections.emptySet();
     }
 
     @Override
@@ -397,13 +474,21 @@ class SeatTableCellRenderer extends DefaultTableCellRenderer {
             return label;
         }
 
-        int seatRow = row + 1;
-        char seatLetter = Flight.getSeatLetters()[column];
-        String seatId = seatRow + "" + seatLetter;
-
-        if (bookedSeats.contains(seatId)) {
+        SeatInventory seats = currentFlight.getSeatInventory();
+        int ordinal = seats.getLayout().ordinalAt(row, column);
+        if (ordinal < 0 || seats.isBlocked(ordinal)) {
+            // Aisle, or a seat that is never sold
+            label.setBackground(Color.LIGHT_GRAY);
+            label.setForeground(Color.DARK_GRAY);
+            return label;
+        }
+        if (seats.isBooked(ordinal)) {
             label.setBackground(Color.RED);
             label.setForeground(Color.WHITE);
+        } else if (seats.isHeld(ordinal)) {
+            // Someone is paying for it right now
+            label.setBackground(Color.ORANGE);
+            label.setForeground(Color.BLACK);
         } else {
             label.setBackground(Color.GREEN);
             label.setForeground(Color.BLACK);
@@ -536,7 +621,8 @@ class PaymentDialog extends JDialog {
 public class PlaneBookingSystemGUI extends JFrame {
     private CardLayout cardLayout = new CardLayout();
     private JPanel mainPanel = new JPanel(cardLayout);
-    private DatabaseManager dbManager;
+    private DataStore store;
+    private AsyncDatabase asyncDb; // null until the background connect finishes
 
     //  Components for Main Menu
     private JPanel roleSelectionPanel;
@@ -568,6 +654,18 @@ public class PlaneBookingSystemGUI extends JFrame {
 
     private Flight currentlySelectedFlight = null;
 
+    // The seat picked for Book & Pay stays held this long (see SeatHoldManager)
+    private static final Duration SEAT_HOLD_TTL = Duration.ofMinutes(5);
+    private final SeatHoldManager seatHolds = new SeatHoldManager();
+
+    // Polled by a Swing timer; seatMapVersion is the last change already drawn
+    private static final int SEAT_MAP_REFRESH_MILLIS = 500;
+    private long seatMapVersion = 0;
+
+    // Seat maps survive a restart when -Dtraveller.seats.snapshotFile is set
+    private static final int SEAT_SNAPSHOT_MILLIS = 10_000;
+    private SeatSnapshotFile seatSnapshots;
+
     public PlaneBookingSystemGUI(InputReader inputReader, OutputWriter outputWriter,
                                  FlightManager flightManager, DefaultPaymentService paymentService) {
         this.inputReader = inputReader;
@@ -575,26 +673,36 @@ public class PlaneBookingSystemGUI extends JFrame {
         this.flightManager = flightManager;
         this.paymentService = paymentService;
 
-        try {
-    this.dbManager = new DatabaseManager();
-    if (!dbManager.isConnected()) {
-        JOptionPane.showMessageDialog(this, 
-            "Connected to database but connection status is invalid", 
-            "Database Warning", JOptionPane.WARNING_MESSAGE);
-    }
-} catch (SQLException e) {
-    JOptionPane.showMessageDialog(this, 
-        "Database connection failed: " + e.getMessage(), 
-        "Critical Error", JOptionPane.ERROR_MESSAGE);
-    System.exit(1);
-}
+        // Connect in the background; the window is usable while MySQL answers
+        AsyncDatabase.open().whenCompleteAsync((db, error) -> {
+    if (error != null) {
+        int choice = JOptionPane.showConfirmDialog(this, 
+            "Database connection failed: " + error.getMessage() + "\n\n" +
+            "Continue offline? Bookings will only be kept until the application closes.", 
+            "Critical Error", JOptionPane.YES_NO_OPTION, JOptionPane.ERROR_MESSAGE);
+        if (choice != JOptionPane.YES_OPTION) {
+            dispose();
+            return;
+        }
+        db = new AsyncDatabase(new InMemoryDataStore());
+    }
+    this.asyncDb = db;
+    this.store = db.getStore();
+    if (!(store instanceof InMemoryDataStore)) {
+        reconcileSeats();
+    }
+}, SwingUtilities::invokeLater);
         setTitle("Plane Booking System");
         setSize(1000, 700);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
 
         setupUI();
+        seatHolds.addExpiryListener(hold -> SwingUtilities.invokeLater(this::refreshSeatMap));
+        // Picks up seats changed by other windows and terminals; a poll with no changes costs one read
+        new javax.swing.Timer(SEAT_MAP_REFRESH_MILLIS, e -> refreshSeatMap()).start();
         addDummyData(); // Add dummy flights only
+        openSeatSnapshots();
         refreshFlightTable();
     }
 
@@ -739,7 +847,7 @@ public class PlaneBookingSystemGUI extends JFrame {
 
         JPanel seatMapPanel = new JPanel(new BorderLayout());
         seatMapPanel.setBorder(BorderFactory.createTitledBorder("Select Your Seat (Green: Available, Red: Booked)"));
-        seatMapTableModel = new DefaultTableModel(Flight.getMaxRows(), Flight.getSeatLetters().length) {
+        seatMapTableModel = new DefaultTableModel(CabinLayout.REGIONAL.toGrid(), CabinLayout.REGIONAL.getColumnHeaders()) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false;
@@ -751,24 +859,17 @@ public class PlaneBookingSystemGUI extends JFrame {
         seatMapTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         seatMapTable.getTableHeader().setReorderingAllowed(false);
 
-        for (int i = 0; i < Flight.getSeatLetters().length; i++) {
-            seatMapTable.getColumnModel().getColumn(i).setHeaderValue(String.valueOf(Flight.getSeatLetters()[i]));
-        }
-
+        // Default renderer rather than per column, so it survives the column reset when the cabin changes
         seatMapRenderer = new SeatTableCellRenderer();
-        for (int i = 0; i < seatMapTable.getColumnModel().getColumnCount(); i++) {
-            seatMapTable.getColumnModel().getColumn(i).setCellRenderer(seatMapRenderer);
-        }
+        seatMapTable.setDefaultRenderer(Object.class, seatMapRenderer);
 
         seatMapTable.getSelectionModel().addListSelectionListener(e -> {
             if (!e.getValueIsAdjusting() && currentlySelectedFlight != null) {
                 int selectedRow = seatMapTable.getSelectedRow();
                 int selectedCol = seatMapTable.getSelectedColumn();
-                if (selectedRow != -1 && selectedCol != -1) {
-                    int seatRow = selectedRow + 1;
-                    char seatLetter = Flight.getSeatLetters()[selectedCol];
-                    String selectedSeat = seatRow + "" + seatLetter;
-                    selectedSeatField.setText(selectedSeat);
+                CabinLayout layout = currentlySelectedFlight.getCabinLayout();
+                if (selectedRow != -1 && selectedCol != -1 && !layout.isAisle(selectedCol)) {
+                    selectedSeatField.setText(layout.seatIdAt(selectedRow, selectedCol));
                     bookSeatButton.setEnabled(true);
                 } else {
                     selectedSeatField.setText("");
@@ -787,7 +888,10 @@ public class PlaneBookingSystemGUI extends JFrame {
         bookSeatButton.setEnabled(false);
 
         bookSeatButton.addActionListener(e -> bookSeat());
+        JButton seatsTogetherButton = new JButton("Find Seats Together...");
+        seatsTogetherButton.addActionListener(e -> findSeatsTogether());
 
+        seatSelectionActionsPanel.add(seatsTogetherButton);
         seatSelectionActionsPanel.add(new JLabel("Selected Seat:"));
         seatSelectionActionsPanel.add(selectedSeatField);
         seatSelectionActionsPanel.add(bookSeatButton);
@@ -881,7 +985,7 @@ public class PlaneBookingSystemGUI extends JFrame {
             try {
                 double price = Double.parseDouble(priceStr);
                 if (num != null && dep != null && arr != null) {
-                    Flight f = new Flight(num, dep, arr, price);
+                    Flight f = new Flight(num, dep, arr, price, chooseCabinLayout());
                     ((SimpleFlightManager)flightManager).getAvailableFlights().add(f);
                     adminFlightTableModel.addRow(new Object[]{num, dep, arr, "Ksh" + String.format("%.2f", price)});
                     refreshFlightTable();
@@ -915,41 +1019,97 @@ public class PlaneBookingSystemGUI extends JFrame {
         clearSeatMap();
     }
 
+    // Plane the new flight is operated with; flights without one get the regional cabin
+    private CabinLayout chooseCabinLayout() {
+        if (planes.isEmpty()) {
+            return CabinLayout.REGIONAL;
+        }
+        Plane plane = (Plane) JOptionPane.showInputDialog(this, "Select Aircraft:", "Aircraft",
+                JOptionPane.QUESTION_MESSAGE, null, planes.toArray(), planes.get(0));
+        return plane == null ? CabinLayout.REGIONAL : plane.getCabinLayout();
+    }
+
     private void updateSeatMap() {
         seatMapRenderer.setFlight(currentlySelectedFlight);
-        seatMapTable.repaint();
-        seatMapTableModel.setRowCount(0);
-        seatMapTableModel.setColumnCount(Flight.getSeatLetters().length);
-        for (int i = 0; i < Flight.getMaxRows(); i++) {
-            Object[] rowData = new Object[Flight.getSeatLetters().length];
-            for (int j = 0; j < Flight.getSeatLetters().length; j++) {
-                rowData[j] = (i + 1) + "" + Flight.getSeatLetters()[j];
-            }
-            seatMapTableModel.addRow(rowData);
+        // Read before drawing, so a change made while drawing is repainted again rather than missed
+        seatMapVersion = currentlySelectedFlight.getSeatInventory().getVersion();
+        showSeatMap(currentlySelectedFlight.getCabinLayout());
+    }
+
+    // Repaints only the seats that changed since the seat map was last drawn
+    private void refreshSeatMap() {
+        Flight flight = currentlySelectedFlight;
+        if (flight == null) {
+            return;
+        }
+        SeatInventory seats = flight.getSeatInventory();
+        SeatChangeLog.Changes changes = seats.changesSince(seatMapVersion);
+        seatMapVersion = changes.getToVersion();
+        if (!changes.isComplete()) {
+            seatMapTable.repaint();
+            return;
+        }
+        CabinLayout layout = seats.getLayout();
+        for (int i = 0; i < changes.size(); i++) {
+            int ordinal = changes.getOrdinal(i);
+            seatMapTableModel.fireTableCellUpdated(layout.gridRowOf(ordinal), layout.columnOf(ordinal));
         }
     }
 
     private void clearSeatMap() {
         seatMapRenderer.setFlight(null);
-        seatMapTable.repaint();
-        seatMapTableModel.setRowCount(0);
-        seatMapTableModel.setColumnCount(0);
-        seatMapTableModel.setRowCount(Flight.getMaxRows());
-        seatMapTableModel.setColumnCount(Flight.getSeatLetters().length);
-        for (int i = 0; i < Flight.getSeatLetters().length; i++) {
-            seatMapTable.getColumnModel().getColumn(i).setHeaderValue(String.valueOf(Flight.getSeatLetters()[i]));
-        }
-        for (int i = 0; i < Flight.getMaxRows(); i++) {
-            Object[] rowData = new Object[Flight.getSeatLetters().length];
-            for (int j = 0; j < Flight.getSeatLetters().length; j++) {
-                rowData[j] = (i + 1) + "" + Flight.getSeatLetters()[j];
-            }
-            seatMapTableModel.addRow(rowData);
-        }
+        showSeatMap(CabinLayout.REGIONAL);
         selectedSeatField.setText("");
         bookSeatButton.setEnabled(false);
     }
 
+    // The grid cells are the layout's interned seat IDs, so nothing is rebuilt per row
+    private void showSeatMap(CabinLayout layout) {
+        seatMapTableModel.setDataVector(layout.toGrid(), layout.getColumnHeaders());
+        for (int col = 0; col < layout.getColumnCount(); col++) {
+            if (layout.isAisle(col)) {
+                seatMapTable.getColumnModel().getColumn(col).setMaxWidth(20);
+            }
+        }
+    }
+
+    private void findSeatsTogether() {
+        if (currentlySelectedFlight == null) {
+            JOptionPane.showMessageDialog(this, "Please select a flight first.", "Seats Together", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String input = JOptionPane.showInputDialog(this, "How many passengers?", "Seats Together", JOptionPane.QUESTION_MESSAGE);
+        if (input == null) {
+            return;
+        }
+        int partySize;
+        try {
+            partySize = Integer.parseInt(input.trim());
+        } catch (NumberFormatException ex) {
+            partySize = 0;
+        }
+        if (partySize <= 0) {
+            JOptionPane.showMessageDialog(this, "Please enter a number of passengers.", "Seats Together", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        boolean window = JOptionPane.showConfirmDialog(this, "Include a window seat?", "Seats Together",
+                JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+        SeatGroupFinder.SeatBlock block = window
+                ? currentlySelectedFlight.findAdjacentSeats(partySize, SeatPreference.WINDOW)
+                : currentlySelectedFlight.findAdjacentSeats(partySize);
+        if (block == null) {
+            JOptionPane.showMessageDialog(this, "No " + partySize + " seats together are left on this flight.", "Seats Together", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        String arrangement = switch (block.getArrangement()) {
+            case SAME_ROW -> "side by side";
+            case ACROSS_AISLE -> "side by side across the aisle";
+            case SPLIT_ROWS -> "in two consecutive rows";
+        };
+        JOptionPane.showMessageDialog(this, "Seats " + String.join(", ", block.getSeatIds()) + " are free " + arrangement + ".",
+                "Seats Together", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private void bookSeat() {
         if (currentlySelectedFlight == null) {
             JOptionPane.showMessageDialog(this, "Please select a flight first.", "Booking Error", JOptionPane.ERROR_MESSAGE);
@@ -976,7 +1136,7 @@ public class PlaneBookingSystemGUI extends JFrame {
             return;
         }
 
-        if (currentlySelectedFlight.getBookedSeats().contains(seatId)) {
+        if (currentlySelectedFlight.isSeatBooked(seatId)) {
             JOptionPane.showMessageDialog(this, "Seat " + seatId + " is already booked. Please choose another.", "Booking Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
@@ -995,97 +1155,81 @@ public class PlaneBookingSystemGUI extends JFrame {
             return;
         }
 
+        if (asyncDb == null) {
+            JOptionPane.showMessageDialog(this, "Still connecting to the database. Please try again in a moment.", "Booking Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        SeatHoldManager.SeatHold hold = seatHolds.hold(currentlySelectedFlight.getSeatInventory(), seatId, SEAT_HOLD_TTL);
+        if (hold == null) {
+            JOptionPane.showMessageDialog(this, "Seat " + seatId + " was just taken by another passenger. Please choose another.", "Booking Error", JOptionPane.ERROR_MESSAGE);
+            refreshSeatMap();
+            return;
+        }
+        refreshSeatMap();
+
         PaymentDialog paymentDialog = new PaymentDialog(this, booking.getTotalPrice());
         paymentDialog.setVisible(true);
 
         if (paymentDialog.isPaymentConfirmed()) {
-            //to save booking to database
-             try {
-                // Save user to database
-                int userId = dbManager.addUser(
+            // Process payment
+            PaymentProcessor processor = null;
+            if (paymentDialog.getPaymentMethodChoice().equals("Cash")) {
+                processor = paymentService.createCashPayment(booking.getTotalPrice());
+            } else if (paymentDialog.getPaymentMethodChoice().equals("Card")) {
+                String cardNumber = paymentDialog.getCardNumber();
+                String expiryDate = paymentDialog.getExpiryDate();
+                String cvv = paymentDialog.getCvv();
+                processor = paymentService.createCardPayment(booking.getTotalPrice(), cardNumber, expiryDate, cvv);
+            }
+
+            if (processor == null) {
+                releaseHold(hold);
+                JOptionPane.showMessageDialog(this, "Invalid payment method selected.", "Payment Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            processor.processPayment(booking, inputReader, consoleOutputWriter);
+            if (!booking.getPaymentStatus().equals("Paid")) {
+                releaseHold(hold);
+                JOptionPane.showMessageDialog(this, "Payment failed. Please try again.", "Payment Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
+            // Claim the seat in memory before saving, so a saved booking always has its seat;
+            // if the hold lapsed during payment, claim the seat directly
+            final Flight flight = currentlySelectedFlight;
+            if (!seatHolds.confirm(hold) && !flightManager.bookSeat(flight, seatId, consoleOutputWriter)) {
+                releaseHold(hold);
+                JOptionPane.showMessageDialog(this, "Failed to book seat " + seatId + ". It might have just been taken.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
+                markRefundRequired(booking);
+                return;
+            }
+            refreshSeatMap();
+
+            //to save user, seat, booking and payment to database in one transaction, off the EDT
+            BookingTransaction transaction = new BookingTransaction(store)
+                .passenger(
                     userNameField.getText(),
                     dob,
                     userNationalityField.getText(),
                     userPassporTextField.getText().isEmpty()? null :userPassporTextField.getText(),
                     userVisaField.getText().isEmpty()? null : userVisaField.getText(),
-                    userEmailField.getText()
-                );
-                
-                // Save booking to database
-                int bookingId = dbManager.createBooking(
-                    userId,
-                    currentlySelectedFlight.getFlightNumber(),
-                    seatId,
+                    userEmailField.getText())
+                .seat(flight.getFlightNumber(), departureOf(flight), seatId)
+                .booking(
                     Timestamp.valueOf(booking.getBookingTime()),
                     booking.getTotalPrice(),
                     booking.getBookingStatus(),
-                    booking.getPaymentStatus()
-                );
-                
-                // Process payment
-                PaymentProcessor processor = null;
-                if (paymentDialog.getPaymentMethodChoice().equals("Cash")) {
-                    processor = paymentService.createCashPayment(booking.getTotalPrice());
-                    dbManager.recordPayment(
-                        bookingId,
-                        booking.getTotalPrice(),
-                        "Cash",
-                        new Timestamp(System.currentTimeMillis())
-                    );
-            
-            
-            
-            
-            
-            
-            
-            
-           
-            
-            } else if (paymentDialog.getPaymentMethodChoice().equals("Card")) {
-                String cardNumber = paymentDialog.getCardNumber();
-                String expiryDate = paymentDialog.getExpiryDate();
-                String cvv = paymentDialog.getCvv();
-                processor = paymentService.createCardPayment(booking.getTotalPrice(), cardNumber, expiryDate, cvv);
-            };
-            dbManager.recordPayment(bookingId,booking.getTotalPrice(),"card",new Timestamp(System.currentTimeMillis()));
-
-            if (processor != null) {
-                processor.processPayment(booking, inputReader, consoleOutputWriter);
-                if (booking.getPaymentStatus().equals("Paid")) {
-                    if (flightManager.bookSeat(currentlySelectedFlight, seatId, consoleOutputWriter)) {
-                        // Display booking details using JOptionPane for direct user feedback
-                        JOptionPane.showMessageDialog(this,
-                                "Booking successful!\n" +
-                                "Booking ID: " + booking.getBookingId() + "\n" +
-                                "Flight: " + currentlySelectedFlight.getFlightNumber() + "\n" +
-                                "Seat: " + seatId + "\n" +
-                                "Price: Ksh" + String.format("%.2f", booking.getTotalPrice()),
-                                "Booking Confirmed", JOptionPane.INFORMATION_MESSAGE);
-                        updateSeatMap();
-                        refreshFlightTable();
-                        userNameField.setText("");
-                        userEmailField.setText("");
-                        userPhoneField.setText("");
-                        selectedSeatField.setText("");
-                        bookSeatButton.setEnabled(false);
-                    } else {
-                        JOptionPane.showMessageDialog(this, "Failed to book seat " + seatId + ". It might have just been taken.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
-                        booking.setPaymentStatus("Refund Required");
-                        consoleOutputWriter.println("Payment processed but seat booking failed. Refund might be required.");
-                    }
-                } else {
-                    JOptionPane.showMessageDialog(this, "Payment failed. Please try again.", "Payment Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid payment method selected.", "Payment Error", JOptionPane.ERROR_MESSAGE);
-            }}
-            catch (Exception e) {
-                JOptionPane.showMessageDialog(this, "Database error: " + e.getMessage(), 
-                                            "Error", JOptionPane.ERROR_MESSAGE);
-                e.printStackTrace();
-            }
+                    booking.getPaymentStatus())
+                .payment(booking.getTotalPrice(), paymentDialog.getPaymentMethodChoice(),
+                    new Timestamp(System.currentTimeMillis()));
+
+            bookSeatButton.setEnabled(false);
+            asyncDb.commit(transaction).whenCompleteAsync(
+                (result, error) -> onBookingSaved(flight, seatId, booking, error),
+                SwingUtilities::invokeLater);
         } else {
+            releaseHold(hold);
             consoleOutputWriter.println("Payment cancelled by user for booking ID " + booking.getBookingId());
             JOptionPane.showMessageDialog(this, "Booking cancelled.", "Booking Status", JOptionPane.INFORMATION_MESSAGE);
         }
@@ -1093,17 +1237,181 @@ public class PlaneBookingSystemGUI extends JFrame {
     
     
 
+    // Maps the snapshot file and puts back every flight's seats as they were at the last checkpoint.
+    // That is only a first picture: once the database is connected, reconcileSeats replaces it with
+    // flight_seats. Offline, the checkpoint is all there is.
+    private void openSeatSnapshots() {
+        String path = System.getProperty("traveller.seats.snapshotFile");
+        if (path == null) {
+            return;
+        }
+        try {
+            seatSnapshots = SeatSnapshotFile.open(Path.of(path), Integer.getInteger("traveller.seats.snapshotCapacity", 100_000));
+        } catch (IOException e) {
+            consoleOutputWriter.println("Seat snapshots disabled: " + e.getMessage());
+            return;
+        }
+        int restored = 0;
+        for (Flight flight : flightManager.getAvailableFlights()) {
+            if (seatSnapshots.restore(flight.getInstanceKey(), flight.getSeatInventory())) {
+                restored++;
+            }
+        }
+        consoleOutputWriter.println("Restored seats of " + restored + " flights from " + path);
+        new javax.swing.Timer(SEAT_SNAPSHOT_MILLIS, e -> checkpointSeats()).start();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                checkpointSeats();
+                try {
+                    seatSnapshots.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
+    }
+
+    // Every booking is committed to flight_seats, so it is never older than a checkpoint and wins over one:
+    // seats it has are booked, booked seats it lacks are freed. The inventory version read before each
+    // query is the watermark; seats this window changed after it are newer than the answer and kept.
+    private void reconcileSeats() {
+        for (Flight flight : flightManager.getAvailableFlights()) {
+            if (!flight.isScheduled()) {
+                continue; // no seat rows without a departure
+            }
+            SeatInventory seats = flight.getSeatInventory();
+            long asOf = seats.getVersion();
+            asyncDb.getBookedSeats(flight.getFlightNumber(), departureOf(flight)).whenCompleteAsync((booked, error) -> {
+                if (error != null) {
+                    consoleOutputWriter.println("Could not load the seats of " + flight.getFlightNumber() + ": " + error);
+                    return;
+                }
+                SeatChangeLog.Changes since = seats.changesSince(asOf);
+                if (!since.isComplete()) {
+                    return; // too much changed meanwhile to tell the seats apart; kept as they are
+                }
+                BitSet changed = new BitSet(seats.capacity());
+                for (int i = 0; i < since.size(); i++) {
+                    changed.set(since.getOrdinal(i));
+                }
+                BitSet inDatabase = new BitSet(seats.capacity());
+                for (String seatId : booked) {
+                    int ordinal = seats.ordinal(seatId);
+                    if (ordinal >= 0) {
+                        inDatabase.set(ordinal);
+                        if (!changed.get(ordinal)) {
+                            seats.book(ordinal);
+                        }
+                    }
+                }
+                for (String seatId : List.copyOf(seats.bookedSeatIds())) {
+                    int ordinal = seats.ordinal(seatId);
+                    if (!inDatabase.get(ordinal) && !changed.get(ordinal)) {
+                        seats.unbook(ordinal);
+                    }
+                }
+                refreshSeatMap();
+            }, SwingUtilities::invokeLater);
+        }
+    }
+
+    private void checkpointSeats() {
+        try {
+            for (Flight flight : flightManager.getAvailableFlights()) {
+                seatSnapshots.checkpoint(flight.getInstanceKey(), flight.getSeatInventory());
+            }
+        } catch (IOException | RuntimeException e) {
+            consoleOutputWriter.println("Seat checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    private void releaseHold(SeatHoldManager.SeatHold hold) {
+        seatHolds.release(hold);
+        refreshSeatMap();
+    }
+
+    // Runs on the EDT once the booking transaction has finished; the seat was already claimed in memory
+    private void onBookingSaved(Flight flight, String seatId, Booking booking, Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        if (error instanceof SeatTakenException) {
+            // Someone else holds the seat in the database, so it stays taken here too
+            JOptionPane.showMessageDialog(this, "Failed to book seat " + seatId + ". It might have just been taken.", "Booking Failed", JOptionPane.ERROR_MESSAGE);
+            markRefundRequired(booking);
+            refreshSeatMap();
+            return;
+        } else if (error instanceof TimeoutException || error instanceof CancellationException) {
+            // The commit may still have gone through, so the database decides whether the seat is free
+            checkUnsavedBooking(flight, seatId, booking, error);
+            return;
+        } else if (error != null) {
+            // Nothing was saved, so give back the seat claimed for this booking
+            flight.getSeatInventory().unbook(seatId);
+            refreshSeatMap();
+            JOptionPane.showMessageDialog(this, "Database error: " + error.getMessage(), 
+                                        "Error", JOptionPane.ERROR_MESSAGE);
+            error.printStackTrace();
+            markRefundRequired(booking);
+            bookSeatButton.setEnabled(true);
+            return;
+        }
+
+        // Display booking details using JOptionPane for direct user feedback
+        JOptionPane.showMessageDialog(this,
+                "Booking successful!\n" +
+                "Booking ID: " + booking.getBookingId() + "\n" +
+                "Flight: " + flight.getFlightNumber() + "\n" +
+                "Seat: " + seatId + "\n" +
+                "Price: Ksh" + String.format("%.2f", booking.getTotalPrice()),
+                "Booking Confirmed", JOptionPane.INFORMATION_MESSAGE);
+        refreshSeatMap();
+        refreshFlightTable();
+        userNameField.setText("");
+        userEmailField.setText("");
+        userPhoneField.setText("");
+        selectedSeatField.setText("");
+        bookSeatButton.setEnabled(false);
+    }
+
+    // Seat rows are keyed by number and departure; an unscheduled flight has no rows to claim
+    private static Timestamp departureOf(Flight flight) {
+        return flight.isScheduled() ? Timestamp.valueOf(flight.getDepartureTime()) : null;
+    }
+
+    // Runs on the EDT after a commit timed out or was cancelled; the seat stays booked unless the database has no claim for it
+    private void checkUnsavedBooking(Flight flight, String seatId, Booking booking, Throwable error) {
+        consoleOutputWriter.println("Booking of seat " + seatId + " on " + flight.getFlightNumber()
+                + " has an unknown outcome: " + error);
+        asyncDb.submit(() -> store.isSeatAvailable(flight.getFlightNumber(), departureOf(flight), seatId)).whenCompleteAsync((free, checkError) -> {
+            if (checkError == null && free) {
+                flight.getSeatInventory().unbook(seatId);
+                refreshSeatMap();
+                JOptionPane.showMessageDialog(this, "The booking could not be saved in time. Please try again.",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+                markRefundRequired(booking);
+                bookSeatButton.setEnabled(true);
+            } else {
+                JOptionPane.showMessageDialog(this, "The database was slow to answer and seat " + seatId
+                        + " is kept for this booking. Please check the booking list before taking payment again.",
+                        "Booking Not Confirmed", JOptionPane.WARNING_MESSAGE);
+            }
+        }, SwingUtilities::invokeLater);
+    }
+
+    // Payment was taken but no booking was saved for it
+    private void markRefundRequired(Booking booking) {
+        booking.setPaymentStatus("Refund Required");
+        consoleOutputWriter.println("Payment processed but seat booking failed. Refund might be required.");
+    }
+
      private List<Flight> loadFlightsFromDatabase() {
         List<Flight> flights = new ArrayList<>();
         try {
-            ResultSet rs = dbManager.executeQuery("SELECT * FROM flight");
-            while (rs.next()) {
-                flights.add(new Flight(
-                    rs.getString("flightNumber"),
-                    rs.getString("departureLocation"),
-                    rs.getString("arrivalLocation"),
-                    rs.getDouble("price")
-                ));
+            for (model.Flight f : store.listFlights()) {
+                flights.add(new Flight(f.getFlightNumber(), f.getDepartureLocation(),
+                                       f.getArrivalLocation(), f.getPrice(), CabinLayout.REGIONAL, f.getDepartureTime()));
             }
         } catch (SQLException e) {
             JOptionPane.showMessageDialog(this, "Failed to load flights: " + e.getMessage(), 
@@ -1114,9 +1422,10 @@ public class PlaneBookingSystemGUI extends JFrame {
 
     private void addDummyData() {
         List<Flight> initialFlights = new ArrayList<>();
-        initialFlights.add(new Flight("KQ100", "Nairobi", "Dubai", 450.00));
-        initialFlights.add(new Flight("EK201", "Dubai", "London", 700.00));
-        initialFlights.add(new Flight("BA249", "London", "Nairobi", 600.00));
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        initialFlights.add(new Flight("KQ100", "Nairobi", "Dubai", 450.00, CabinLayout.REGIONAL, today.plusHours(10)));
+        initialFlights.add(new Flight("EK201", "Dubai", "London", 700.00, CabinLayout.REGIONAL, today.plusHours(16)));
+        initialFlights.add(new Flight("BA249", "London", "Nairobi", 600.00, CabinLayout.REGIONAL, today.plusHours(22)));
         this.flightManager = new SimpleFlightManager(initialFlights);
         flightManager.bookSeat(initialFlights.get(0), "1A", consoleOutputWriter);
         flightManager.bookSeat(initialFlights.get(0), "1B", consoleOutputWriter);
@@ -1159,11 +1468,14 @@ class Airport {
 class Plane {
     private String model, registration;
     private int capacity;
+    private final CabinLayout cabinLayout;
     public Plane(String model, String registration, int capacity) {
         this.model = model; this.registration = registration; this.capacity = capacity;
+        this.cabinLayout = CabinLayout.forAircraft(model, capacity);
     }
     public String getModel() { return model; }
     public String getRegistration() { return registration; }
     public int getCapacity() { return capacity; }
+    public CabinLayout getCabinLayout() { return cabinLayout; }
     @Override public String toString() { return registration + " - " + model + " (" + capacity + " seats)"; }
 }
@@ -0,0 +1,175 @@
+package database;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import model.Airline;
+import model.Airport;
+import model.Flight;
+
+/**
+ * Non-blocking facade over a {@link DataStore}.
+ *
+ * Every call runs on its own virtual thread and returns a CompletableFuture,
+ * so the Swing EDT (or any other caller) never waits on MySQL. At most
+ * {@code maxConcurrency} calls touch the store at once; the rest queue on
+ * a semaphore instead of piling up on the connection pool. Cancelling a
+ * returned future, or letting it run past its timeout, interrupts the
+ * virtual thread running it.
+ */
+public class AsyncDatabase implements AutoCloseable {
+
+    /** A unit of database work that may throw SQLException. */
+    @FunctionalInterface
+    public interface SqlWork<T> {
+        T run() throws SQLException;
+    }
+
+    private final DataStore store;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore permits;
+    private final Duration defaultTimeout;
+
+    public AsyncDatabase(DataStore store, int maxConcurrency, Duration defaultTimeout) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive");
+        }
+        this.store = store;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    /** Limits concurrency to what the store can serve at once (the pool size for MySQL), 30 s timeout. */
+    public AsyncDatabase(DataStore store) {
+        this(store, store.getMaxConcurrency(), Duration.ofSeconds(30));
+    }
+
+    /**
+     * Opens the configured store (see {@link DataStore#open()}) off the calling
+     * thread, so a slow or unreachable server does not freeze the UI.
+     */
+    public static CompletableFuture<AsyncDatabase> open() {
+        CompletableFuture<AsyncDatabase> result = new CompletableFuture<>();
+        Thread.ofVirtual().name("database-connect").start(() -> {
+            try {
+                result.complete(new AsyncDatabase(DataStore.open()));
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    public DataStore getStore() {
+        return store;
+    }
+
+    public <T> CompletableFuture<T> submit(SqlWork<T> work) {
+        return submit(work, defaultTimeout);
+    }
+
+    /**
+     * Runs the work on a virtual thread once a concurrency permit is free.
+     * SQLExceptions complete the future exceptionally with the SQLException itself.
+     */
+    public <T> CompletableFuture<T> submit(SqlWork<T> work, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                result.completeExceptionally(new CancellationException("Cancelled while waiting for a database slot"));
+                return;
+            }
+            try {
+                if (!result.isDone()) {
+                    result.complete(work.run());
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                permits.release();
+            }
+        });
+        if (timeout != null) {
+            result.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        // Cancellation or timeout of the future stops the worker as well
+        result.whenComplete((value, error) -> {
+            if (error instanceof CancellationException || error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    // ========== DataStore ==========
+
+    public CompletableFuture<Integer> addUser(String fullname, Date dob, String nationality,
+                                              String passportNumber, String visaNumber, String email) {
+        return submit(() -> store.addUser(fullname, dob, nationality, passportNumber, visaNumber, email));
+    }
+
+    public CompletableFuture<Integer> createBooking(int passengerId, String flightId, Timestamp departureTime,
+                                                    String seatId, Timestamp bookingTime, double totalPrice,
+                                                    String bookingStatus, String paymentStatus) {
+        return submit(() -> store.createBooking(passengerId, flightId, departureTime, seatId, bookingTime,
+                totalPrice, bookingStatus, paymentStatus));
+    }
+
+    public CompletableFuture<Boolean> recordPayment(int bookingId, double amount, String paymentMethod,
+                                                    Timestamp paymentDate) {
+        return submit(() -> store.recordPayment(bookingId, amount, paymentMethod, paymentDate));
+    }
+
+    public CompletableFuture<BookingTransaction.Result> commit(BookingTransaction transaction) {
+        return submit(transaction::commit);
+    }
+
+    public CompletableFuture<Boolean> claimSeat(String flightNumber, Timestamp departureTime, String seatId) {
+        return submit(() -> store.claimSeat(flightNumber, departureTime, seatId));
+    }
+
+    public CompletableFuture<List<String>> getBookedSeats(String flightNumber, Timestamp departureTime) {
+        return submit(() -> store.getBookedSeats(flightNumber, departureTime));
+    }
+
+    public CompletableFuture<List<Airline>> getAllAirlines() {
+        return submit(store::listAirlines);
+    }
+
+    public CompletableFuture<List<Airport>> getAllAirports() {
+        return submit(store::listAirports);
+    }
+
+    public CompletableFuture<List<Flight>> getAllFlights() {
+        return submit(store::listFlights);
+    }
+
+    public CompletableFuture<BookingPage> getFirstBookingsPage(int pageSize, String flightId, String status) {
+        return submit(() -> store.getFirstBookingsPage(pageSize, flightId, status));
+    }
+
+    public CompletableFuture<BookingPage> getNextBookingsPage(BookingPage.Cursor after, int pageSize,
+                                                              String flightId, String status) {
+        return submit(() -> store.getNextBookingsPage(after, pageSize, flightId, status));
+    }
+
+    /** Stops accepting work; calls already running are allowed to finish. */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
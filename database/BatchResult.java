@@ -0,0 +1,92 @@
+package database;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of a batch write, one entry per input row (same order as the input list).
+ * Successful rows carry their generated key, or -1 when the table has none;
+ * failed rows carry the SQLException that rejected them.
+ */
+public class BatchResult {
+    private final long[] generatedKeys;
+    private final SQLException[] errors;
+    private final boolean[] done;
+
+    BatchResult(int size) {
+        this.generatedKeys = new long[size];
+        this.errors = new SQLException[size];
+        this.done = new boolean[size];
+    }
+
+    void succeeded(int row, long key) {
+        generatedKeys[row] = key;
+        errors[row] = null;
+        done[row] = true;
+    }
+
+    void failed(int row, SQLException error) {
+        generatedKeys[row] = -1;
+        errors[row] = error;
+        done[row] = true;
+    }
+
+    // Marks every row that was never attempted as failed with the given cause
+    void failRemaining(SQLException error) {
+        for (int i = 0; i < done.length; i++) {
+            if (!done[i]) {
+                failed(i, error);
+            }
+        }
+    }
+
+    public int size() {
+        return generatedKeys.length;
+    }
+
+    public boolean isSuccess(int row) {
+        return done[row] && errors[row] == null;
+    }
+
+    public long getGeneratedKey(int row) {
+        return generatedKeys[row];
+    }
+
+    public SQLException getError(int row) {
+        return errors[row];
+    }
+
+    public int getSuccessCount() {
+        int count = 0;
+        for (int i = 0; i < errors.length; i++) {
+            if (isSuccess(i)) count++;
+        }
+        return count;
+    }
+
+    public int getFailureCount() {
+        return size() - getSuccessCount();
+    }
+
+    public boolean isAllSucceeded() {
+        return getFailureCount() == 0;
+    }
+
+    /** Failed rows by their index in the input list. */
+    public Map<Integer, SQLException> getFailures() {
+        Map<Integer, SQLException> failures = new LinkedHashMap<>();
+        for (int i = 0; i < errors.length; i++) {
+            if (!isSuccess(i)) {
+                failures.put(i, errors[i]);
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchResult[rows=" + size() + ", succeeded=" + getSuccessCount()
+                + ", failed=" + getFailureCount() + "]";
+    }
+}
@@ -2,11 +2,14 @@ package database;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import model.Booking;
 
 public class BookingDAO {
+    public static final String CANCELLED = "Cancelled";
+
     public int addBooking(Booking booking) {
         String sql = "INSERT INTO bookings (user_id, flight_id, seat_id, booking_time, total_price, booking_status) VALUES (?, ?, ?, ?, ?, ?)";
         try (Connection conn = DBHelper.getConnection();
@@ -27,6 +30,8 @@ public class BookingDAO {
         return -1;
     }
 
+    /** @deprecated loads every booking at once; use the keyset-paged methods below */
+    @Deprecated
     public List<Booking> getAllBookings() {
         List<Booking> bookings = new ArrayList<>();
         String sql = "SELECT * FROM bookings";
@@ -50,4 +55,147 @@ public class BookingDAO {
         }
         return bookings;
     }
+
+    /**
+     * Marks a booking cancelled and frees its seat row in one transaction.
+     * The caller still has to free the seat in memory, through
+     * model.Flight.releaseSeat.
+     *
+     * @return the booking as it was before cancelling, or null if there is no
+     *         such booking, it was already cancelled, or the update failed
+     */
+    public BookingRecord cancelBooking(int bookingId) {
+        try (Connection conn = DBHelper.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BookingRecord booking = lockBooking(conn, bookingId);
+                if (booking == null || CANCELLED.equals(booking.getBookingStatus())) {
+                    conn.rollback();
+                    return null;
+                }
+                try (PreparedStatement pst = conn.prepareStatement(
+                        "UPDATE booking SET bookingStatus = ? WHERE BookingId = ?")) {
+                    pst.setString(1, CANCELLED);
+                    pst.setInt(2, bookingId);
+                    pst.executeUpdate();
+                }
+                try (PreparedStatement pst = conn.prepareStatement(
+                        "DELETE FROM flight_seats WHERE flight_number = ? AND departure_time = ? AND seat_id = ?")) {
+                    pst.setString(1, booking.getFlightId());
+                    pst.setTimestamp(2, booking.getDepartureTime());
+                    pst.setString(3, booking.getSeatId());
+                    pst.executeUpdate();
+                }
+                conn.commit();
+                return booking;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    private BookingRecord lockBooking(Connection conn, int bookingId) throws SQLException {
+        String sql = "SELECT BookingId, passenger_id, flightId, departureTime, seatId, bookingTime, totalPrice, bookingStatus, paymentStatus " +
+                     "FROM booking WHERE BookingId = ? FOR UPDATE";
+        try (PreparedStatement pst = conn.prepareStatement(sql)) {
+            pst.setInt(1, bookingId);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? mapBooking(rs) : null;
+            }
+        }
+    }
+
+    // ========== Keyset pagination ==========
+    // Bookings are ordered newest first by (bookingTime, BookingId). Each page seeks
+    // past the cursor with an indexed range condition rather than an OFFSET, so deep
+    // pages are as cheap as the first one. Filters are optional (null = no filter).
+
+    public BookingPage getFirstBookingsPage(int pageSize, String flightId, String status) {
+        return fetchBookingsPage(null, true, pageSize, flightId, status);
+    }
+
+    public BookingPage getNextBookingsPage(BookingPage.Cursor after, int pageSize, String flightId, String status) {
+        return fetchBookingsPage(after, true, pageSize, flightId, status);
+    }
+
+    public BookingPage getPreviousBookingsPage(BookingPage.Cursor before, int pageSize, String flightId, String status) {
+        return fetchBookingsPage(before, false, pageSize, flightId, status);
+    }
+
+    private BookingPage fetchBookingsPage(BookingPage.Cursor cursor, boolean forward, int pageSize,
+                                          String flightId, String status) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT BookingId, passenger_id, flightId, departureTime, seatId, bookingTime, totalPrice, bookingStatus, paymentStatus " +
+            "FROM booking WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (flightId != null && !flightId.isEmpty()) {
+            sql.append(" AND flightId = ?");
+            params.add(flightId);
+        }
+        if (status != null && !status.isEmpty()) {
+            sql.append(" AND bookingStatus = ?");
+            params.add(status);
+        }
+        if (cursor != null) {
+            String op = forward ? "<" : ">";
+            sql.append(" AND (bookingTime ").append(op).append(" ? OR (bookingTime = ? AND BookingId ")
+               .append(op).append(" ?))");
+            params.add(cursor.getBookingTime());
+            params.add(cursor.getBookingTime());
+            params.add(cursor.getBookingId());
+        }
+        // Walking backwards reads in ascending order and flips the page afterwards
+        sql.append(forward ? " ORDER BY bookingTime DESC, BookingId DESC" : " ORDER BY bookingTime ASC, BookingId ASC");
+        // One extra row tells us whether there is another page in this direction
+        sql.append(" LIMIT ?");
+        params.add(pageSize + 1);
+
+        List<BookingRecord> items = new ArrayList<>(pageSize + 1);
+        try (Connection conn = DBHelper.getConnection();
+             PreparedStatement pst = conn.prepareStatement(sql.toString())) {
+            for (int i = 0; i < params.size(); i++) {
+                pst.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    items.add(mapBooking(rs));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        boolean more = items.size() > pageSize;
+        if (more) {
+            items.remove(items.size() - 1);
+        }
+        if (forward) {
+            return new BookingPage(items, more, cursor != null);
+        }
+        Collections.reverse(items);
+        return new BookingPage(items, true, more);
+    }
+
+    private static BookingRecord mapBooking(ResultSet rs) throws SQLException {
+        return new BookingRecord(
+            rs.getInt("BookingId"),
+            rs.getInt("passenger_id"),
+            rs.getString("flightId"),
+            rs.getTimestamp("departureTime"),
+            rs.getString("seatId"),
+            rs.getTimestamp("bookingTime"),
+            rs.getDouble("totalPrice"),
+            rs.getString("bookingStatus"),
+            rs.getString("paymentStatus")
+        );
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package database;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of bookings, newest first, from BookingDAO's keyset queries.
+ * Pages are addressed by a {@link Cursor} (booking time + id) instead of an
+ * OFFSET, so fetching page 1000 costs the same as fetching page 1.
+ */
+public class BookingPage {
+    private final List<BookingRecord> items;
+    private final boolean hasNext;
+    private final boolean hasPrevious;
+
+    BookingPage(List<BookingRecord> items, boolean hasNext, boolean hasPrevious) {
+        this.items = Collections.unmodifiableList(items);
+        this.hasNext = hasNext;
+        this.hasPrevious = hasPrevious;
+    }
+
+    public List<BookingRecord> getItems() {
+        return items;
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public boolean hasPrevious() {
+        return hasPrevious;
+    }
+
+    /** Cursor to pass to getNextBookingsPage, or null when this is the last page. */
+    public Cursor getNextCursor() {
+        return hasNext && !items.isEmpty() ? Cursor.of(items.get(items.size() - 1)) : null;
+    }
+
+    /** Cursor to pass to getPreviousBookingsPage, or null when this is the first page. */
+    public Cursor getPreviousCursor() {
+        return hasPrevious && !items.isEmpty() ? Cursor.of(items.get(0)) : null;
+    }
+
+    /** Position of a booking in the (bookingTime DESC, BookingId DESC) ordering. */
+    public static class Cursor {
+        private final Timestamp bookingTime;
+        private final int bookingId;
+
+        public Cursor(Timestamp bookingTime, int bookingId) {
+            this.bookingTime = bookingTime;
+            this.bookingId = bookingId;
+        }
+
+        static Cursor of(BookingRecord record) {
+            return new Cursor(record.getBookingTime(), record.getBookingId());
+        }
+
+        public Timestamp getBookingTime() { return bookingTime; }
+        public int getBookingId() { return bookingId; }
+    }
+}
@@ -0,0 +1,49 @@
+package database;
+
+import java.sql.Timestamp;
+
+/**
+ * One row of the booking table, as written by DatabaseManager.createBookings
+ * and read back by BookingDAO's paged queries.
+ */
+public class BookingRecord {
+    private final int bookingId;
+    private final int passengerId;
+    private final String flightId;
+    private final Timestamp departureTime;
+    private final String seatId;
+    private final Timestamp bookingTime;
+    private final double totalPrice;
+    private final String bookingStatus;
+    private final String paymentStatus;
+
+    public BookingRecord(int passengerId, String flightId, Timestamp departureTime, String seatId,
+                         Timestamp bookingTime, double totalPrice, String bookingStatus, String paymentStatus) {
+        this(-1, passengerId, flightId, departureTime, seatId, bookingTime, totalPrice, bookingStatus, paymentStatus);
+    }
+
+    public BookingRecord(int bookingId, int passengerId, String flightId, Timestamp departureTime, String seatId,
+                         Timestamp bookingTime, double totalPrice, String bookingStatus, String paymentStatus) {
+        this.bookingId = bookingId;
+        this.passengerId = passengerId;
+        this.flightId = flightId;
+        this.departureTime = departureTime;
+        this.seatId = seatId;
+        this.bookingTime = bookingTime;
+        this.totalPrice = totalPrice;
+        this.bookingStatus = bookingStatus;
+        this.paymentStatus = paymentStatus;
+    }
+
+    /** Database id, or -1 for a booking that has not been saved yet. */
+    public int getBookingId() { return bookingId; }
+    public int getPassengerId() { return passengerId; }
+    /** The flight number; with getDepartureTime it names the flight. */
+    public String getFlightId() { return flightId; }
+    public Timestamp getDepartureTime() { return departureTime; }
+    public String getSeatId() { return seatId; }
+    public Timestamp getBookingTime() { return bookingTime; }
+    public double getTotalPrice() { return totalPrice; }
+    public String getBookingStatus() { return bookingStatus; }
+    public String getPaymentStatus() { return paymentStatus; }
+}
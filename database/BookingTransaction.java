@@ -0,0 +1,225 @@
+package database;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * The book-and-pay path as one unit of work: user upsert, seat claim,
+ * booking insert and payment insert are applied by the DataStore as a
+ * single commit (one pooled connection for MySQL). Any failure rolls
+ * everything back, so a failed payment insert can no longer leave an
+ * orphaned user or booking behind.
+ *
+ * <pre>
+ * BookingTransaction.Result result = new BookingTransaction(store)
+ *         .passenger(name, dob, nationality, passport, visa, email)
+ *         .seat("KQ100", departureTime, "12C")
+ *         .booking(bookingTime, price, "Confirmed", "Paid")
+ *         .payment(price, "Cash", paymentDate)
+ *         .commit();
+ * </pre>
+ */
+public class BookingTransaction {
+    private final DataStore store;
+    private int isolationLevel = Connection.TRANSACTION_READ_COMMITTED;
+
+    // Package-private so each DataStore can apply the steps its own way
+    // Passenger
+    String fullname, nationality, passportNumber, visaNumber, email;
+    Date dob;
+    // Seat, on the flight with this number and departure
+    String flightNumber, seatId;
+    Timestamp departureTime;
+    // Booking
+    Timestamp bookingTime;
+    double totalPrice;
+    String bookingStatus, paymentStatus;
+    // Payment (optional)
+    boolean hasPayment = false;
+    double paymentAmount;
+    String paymentMethod;
+    Timestamp paymentDate;
+
+    public BookingTransaction(DataStore store) {
+        this.store = store;
+    }
+
+    /** One of the Connection.TRANSACTION_* levels; READ_COMMITTED by default. Ignored by in-memory stores. */
+    public BookingTransaction isolation(int isolationLevel) {
+        this.isolationLevel = isolationLevel;
+        return this;
+    }
+
+    public BookingTransaction passenger(String fullname, Date dob, String nationality,
+                                        String passportNumber, String visaNumber, String email) {
+        this.fullname = fullname;
+        this.dob = dob;
+        this.nationality = nationality;
+        this.passportNumber = passportNumber;
+        this.visaNumber = visaNumber;
+        this.email = email;
+        return this;
+    }
+
+    public BookingTransaction seat(String flightNumber, Timestamp departureTime, String seatId) {
+        this.flightNumber = flightNumber;
+        this.departureTime = departureTime;
+        this.seatId = seatId;
+        return this;
+    }
+
+    public BookingTransaction booking(Timestamp bookingTime, double totalPrice,
+                                      String bookingStatus, String paymentStatus) {
+        this.bookingTime = bookingTime;
+        this.totalPrice = totalPrice;
+        this.bookingStatus = bookingStatus;
+        this.paymentStatus = paymentStatus;
+        return this;
+    }
+
+    public BookingTransaction payment(double amount, String paymentMethod, Timestamp paymentDate) {
+        this.hasPayment = true;
+        this.paymentAmount = amount;
+        this.paymentMethod = paymentMethod;
+        this.paymentDate = paymentDate;
+        return this;
+    }
+
+    /**
+     * Runs every step and commits once.
+     *
+     * @throws SeatTakenException if someone else already holds the seat
+     * @throws IllegalArgumentException if the passenger details are invalid or clash with another user
+     */
+    public Result commit() throws SQLException {
+        if (flightNumber == null || departureTime == null || seatId == null) {
+            throw new IllegalStateException("Flight, departure and seat must be set before committing");
+        }
+        if (bookingTime == null) {
+            throw new IllegalStateException("Booking details must be set before committing");
+        }
+        return store.commitBooking(this);
+    }
+
+    // The MySQL path: every step on one pooled connection, committed once
+    Result commitOn(DatabaseManager dbManager) throws SQLException {
+        try (Connection connection = dbManager.getConnection()) {
+            int previousIsolation = connection.getTransactionIsolation();
+            connection.setTransactionIsolation(isolationLevel);
+            connection.setAutoCommit(false);
+            try {
+                int userId = upsertUser(dbManager, connection);
+                claimSeat(connection);
+                int bookingId = insertBooking(connection, userId);
+                int paymentId = hasPayment ? insertPayment(connection, bookingId) : -1;
+                connection.commit();
+                return new Result(userId, bookingId, paymentId);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+                connection.setTransactionIsolation(previousIsolation);
+            }
+        }
+    }
+
+    // A returning passenger is matched by email and passport together; an
+    // email already used with another passport, or with none, is still a duplicate
+    private int upsertUser(DatabaseManager dbManager, Connection connection) throws SQLException {
+        try {
+            return dbManager.insertUser(connection, fullname, dob, nationality, passportNumber, visaNumber, email);
+        } catch (DuplicateUserException e) {
+            String passport = DatabaseManager.blankToNull(passportNumber);
+            if (e.getField() != DuplicateUserException.Field.EMAIL || passport == null) {
+                throw e;
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(
+                    "SELECT id, passport_number FROM users WHERE email = ?")) {
+                stmt.setString(1, email);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    if (rs.next() && passport.equalsIgnoreCase(rs.getString("passport_number"))) {
+                        return rs.getInt("id");
+                    }
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void claimSeat(Connection connection) throws SQLException {
+        String query = "INSERT INTO flight_seats (flight_number, departure_time, seat_id, is_booked) VALUES (?, ?, ?, true)";
+        try (PreparedStatement stmt = connection.prepareStatement(query)) {
+            stmt.setString(1, flightNumber);
+            stmt.setTimestamp(2, departureTime);
+            stmt.setString(3, seatId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            // Only the unique key means the seat is taken; other integrity errors are real failures
+            if (e.getErrorCode() == DatabaseManager.ER_DUP_ENTRY) {
+                throw new SeatTakenException(flightNumber, seatId, e);
+            }
+            throw e;
+        }
+    }
+
+    private int insertBooking(Connection connection, int userId) throws SQLException {
+        String query = "INSERT INTO booking (passenger_id, flightId, departureTime, seatId, bookingTime, " +
+                      "totalPrice, bookingStatus, paymentStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, userId);
+            stmt.setString(2, flightNumber);
+            stmt.setTimestamp(3, departureTime);
+            stmt.setString(4, seatId);
+            stmt.setTimestamp(5, bookingTime);
+            stmt.setDouble(6, totalPrice);
+            stmt.setString(7, bookingStatus);
+            stmt.setString(8, paymentStatus);
+            stmt.executeUpdate();
+            return generatedKey(stmt, "booking");
+        }
+    }
+
+    private int insertPayment(Connection connection, int bookingId) throws SQLException {
+        String query = "INSERT INTO payments (bookingId, amount, paymentMethod, paymentDate) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, bookingId);
+            stmt.setDouble(2, paymentAmount);
+            stmt.setString(3, paymentMethod);
+            stmt.setTimestamp(4, paymentDate);
+            stmt.executeUpdate();
+            return generatedKey(stmt, "payment");
+        }
+    }
+
+    private static int generatedKey(PreparedStatement stmt, String what) throws SQLException {
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+            if (keys.next()) {
+                return keys.getInt(1);
+            }
+        }
+        throw new SQLException("Creating " + what + " failed, no ID obtained");
+    }
+
+    /** Ids generated by a committed booking; paymentId is -1 when no payment was recorded. */
+    public static class Result {
+        private final int userId;
+        private final int bookingId;
+        private final int paymentId;
+
+        Result(int userId, int bookingId, int paymentId) {
+            this.userId = userId;
+            this.bookingId = bookingId;
+            this.paymentId = paymentId;
+        }
+
+        public int getUserId() { return userId; }
+        public int getBookingId() { return bookingId; }
+        public int getPaymentId() { return paymentId; }
+    }
+}
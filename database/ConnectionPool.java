@@ -0,0 +1,562 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A small bounded JDBC connection pool.
+ *
+ * Connections handed out by {@link #getConnection()} are proxies: calling
+ * close() on them returns the physical connection to the pool instead of
+ * closing the socket, so existing try-with-resources code keeps working.
+ * Connections idle for longer than {@value #VALIDATE_AFTER_IDLE_MILLIS} ms
+ * are validated with a round trip before they are handed out; ones used just
+ * before are only checked for being closed. Idle connections are evicted
+ * after {@code idleTimeoutMillis}, and connections held longer than
+ * {@code leakThresholdMillis} are reported together with the stack of the
+ * code that borrowed them. A threshold of 0 turns leak detection off, and
+ * with it the capture of a stack on every borrow.
+ *
+ * Each physical connection also keeps an LRU cache of prepared statements
+ * keyed by SQL text, so repeated calls to prepareStatement() for the same
+ * query reuse the already parsed statement. Closing a cached statement closes
+ * the result sets it returned and clears its parameters; it is really closed
+ * when evicted or when the connection itself is discarded. Returning the
+ * connection closes every statement handed out on that borrow, so a caller
+ * holding on to one cannot run it on the next borrower's connection.
+ */
+public class ConnectionPool {
+    // Upper bounds (in ms) of the wait-time histogram buckets; the last bucket is open ended
+    private static final long[] WAIT_BUCKETS_MS = {1, 5, 10, 50, 100, 500, 1000};
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    // A connection used this recently is trusted without a validation round trip
+    static final long VALIDATE_AFTER_IDLE_MILLIS = 500;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed = false;
+
+    // Statistics
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong evictedCount = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_BUCKETS_MS.length + 1);
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long maxWaitMillis, long idleTimeoutMillis, long leakThresholdMillis) {
+        this(url, user, password, maxSize, maxWaitMillis, idleTimeoutMillis, leakThresholdMillis, 0);
+    }
+
+    /**
+     * @param statementCacheSize number of prepared statements cached per connection, 0 to disable
+     */
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long maxWaitMillis, long idleTimeoutMillis, long leakThresholdMillis,
+                          int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, (leakThresholdMillis > 0
+                ? Math.min(idleTimeoutMillis, leakThresholdMillis) : idleTimeoutMillis) / 2);
+        housekeeper.scheduleAtFixedRate(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting at most {@code maxWaitMillis} for one to become free.
+     * The caller must close the returned connection to give it back.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+        if (!acquired) {
+            timeoutCount.incrementAndGet();
+            throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection ("
+                    + active.size() + " of " + maxSize + " in use)");
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = new PooledConnection(DriverManager.getConnection(url, user, password));
+                totalConnections.incrementAndGet();
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowStack = leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            active.add(pooled);
+            borrowCount.incrementAndGet();
+            return new Lease(pooled).proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            discard(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            return System.currentTimeMillis() - pooled.lastUsed <= VALIDATE_AFTER_IDLE_MILLIS
+                    || pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static boolean isClosedQuietly(ResultSet result) {
+        try {
+            return result.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        active.remove(pooled);
+        try {
+            if (closed || pooled.physical.isClosed()) {
+                discard(pooled);
+                return;
+            }
+            // Never hand the next borrower a half-finished transaction
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.releaseStatements();
+            pooled.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pooled);
+        } catch (SQLException e) {
+            discard(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private void recordWait(long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int bucket = 0;
+        while (bucket < WAIT_BUCKETS_MS.length && millis >= WAIT_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        waitHistogram.incrementAndGet(bucket);
+    }
+
+    // Runs on the housekeeper thread: evicts stale idle connections and reports leaks
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        for (PooledConnection pooled : idle) {
+            if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+                evictedCount.incrementAndGet();
+                discard(pooled);
+            }
+        }
+        for (PooledConnection pooled : active) {
+            if (leakThresholdMillis > 0 && !pooled.leakReported && now - pooled.borrowedAt > leakThresholdMillis) {
+                pooled.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection held for "
+                        + (now - pooled.borrowedAt) + " ms");
+                Throwable borrowStack = pooled.borrowStack;
+                if (borrowStack != null) {
+                    borrowStack.printStackTrace();
+                }
+            }
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Closes all idle connections; borrowed ones are closed as they are returned. */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    public Stats getStats() {
+        long[] histogram = new long[waitHistogram.length()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = waitHistogram.get(i);
+        }
+        return new Stats(maxSize, active.size(), idle.size(), totalConnections.get(), borrowCount.get(),
+                timeoutCount.get(), leakCount.get(), evictedCount.get(), histogram,
+                statementCacheHits.get(), statementCacheMisses.get());
+    }
+
+    /** Immutable snapshot of pool usage, used to size the pool under load. */
+    public static class Stats {
+        private final int maxSize;
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final long borrows;
+        private final long timeouts;
+        private final long leaks;
+        private final long evictions;
+        private final long[] waitHistogram;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        Stats(int maxSize, int active, int idle, int total, long borrows,
+              long timeouts, long leaks, long evictions, long[] waitHistogram,
+              long statementCacheHits, long statementCacheMisses) {
+            this.maxSize = maxSize;
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.leaks = leaks;
+            this.evictions = evictions;
+            this.waitHistogram = waitHistogram;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getMaxSize() { return maxSize; }
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getTotal() { return total; }
+        public long getBorrows() { return borrows; }
+        public long getTimeouts() { return timeouts; }
+        public long getLeaks() { return leaks; }
+        public long getEvictions() { return evictions; }
+        public long getStatementCacheHits() { return statementCacheHits; }
+        public long getStatementCacheMisses() { return statementCacheMisses; }
+
+        /** Bucket counts; bucket i holds waits below {@link #getWaitBucketBoundsMillis()}[i] ms. */
+        public long[] getWaitHistogram() { return waitHistogram.clone(); }
+
+        public static long[] getWaitBucketBoundsMillis() { return WAIT_BUCKETS_MS.clone(); }
+
+        @Override
+        public String toString() {
+            return "Pool[active=" + active + ", idle=" + idle + ", total=" + total + "/" + maxSize
+                    + ", borrows=" + borrows + ", timeouts=" + timeouts + ", leaks=" + leaks
+                    + ", evictions=" + evictions + ", waitHistogram(ms<" + Arrays.toString(WAIT_BUCKETS_MS)
+                    + ",inf)=" + Arrays.toString(waitHistogram)
+                    + ", statementCache(hits=" + statementCacheHits + ", misses=" + statementCacheMisses + ")]";
+        }
+    }
+
+    // One physical connection plus the bookkeeping the pool needs for it
+    private class PooledConnection {
+        final Connection physical;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowStack;
+        volatile boolean leakReported;
+
+        // Access-ordered, so iteration order is least recently used first
+        private final Map<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement prepare(Connection lease, String sql, int autoGeneratedKeys) throws SQLException {
+            if (statementCacheSize == 0) {
+                return physical.prepareStatement(sql, autoGeneratedKeys);
+            }
+            String key = autoGeneratedKeys + ":" + sql;
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse) {
+                statementCacheHits.incrementAndGet();
+                cached.inUse = true;
+                return cached.proxyFor(lease);
+            }
+            statementCacheMisses.incrementAndGet();
+            PreparedStatement statement = physical.prepareStatement(sql, autoGeneratedKeys);
+            if (cached != null) {
+                // Same SQL already open on this connection (nested use); do not cache the second copy
+                return statement;
+            }
+            cached = new CachedStatement(statement);
+            cached.inUse = true;
+            statements.put(key, cached);
+            return cached.proxyFor(lease);
+        }
+
+        // Called when the connection goes back to the pool
+        void releaseStatements() {
+            for (CachedStatement cached : statements.values()) {
+                if (cached.inUse) {
+                    cached.closeLogical();
+                }
+            }
+        }
+    }
+
+    // A prepared statement that stays open across borrows of the same connection
+    private static class CachedStatement {
+        final PreparedStatement physical;
+        boolean inUse;
+        boolean evicted;
+        private StatementLease current; // the proxy handed out for the current use
+
+        CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        PreparedStatement proxyFor(Connection lease) {
+            current = new StatementLease(lease);
+            return current.proxy;
+        }
+
+        // The statement's current use is over: its proxy stops working and its results are closed
+        void closeLogical() {
+            StatementLease lease = current;
+            if (lease != null) {
+                lease.close();
+            }
+        }
+
+        // One use of the cached statement, from prepareStatement() to close() or the connection's return
+        private class StatementLease implements InvocationHandler {
+            final Connection lease;
+            final PreparedStatement proxy;
+            private final List<ResultSet> results = new ArrayList<>();
+            private volatile boolean closed = false;
+
+            StatementLease(Connection lease) {
+                this.lease = lease;
+                this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                        ConnectionPool.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+            }
+
+            synchronized void close() {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                for (ResultSet result : results) {
+                    try {
+                        result.close();
+                    } catch (SQLException e) {
+                        // The statement is reset below either way
+                    }
+                }
+                results.clear();
+                if (current == this) {
+                    current = null;
+                    reset();
+                }
+            }
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        close();
+                        return null;
+                    case "isClosed":
+                        return closed || physical.isClosed();
+                    case "getConnection":
+                        return lease;
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    default:
+                        break;
+                }
+                if (closed) {
+                    throw new SQLException("Statement is closed");
+                }
+                Object result;
+                try {
+                    result = method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof ResultSet) {
+                    synchronized (this) {
+                        // Re-executing closes the previous result, so only open ones are kept
+                        results.removeIf(ConnectionPool::isClosedQuietly);
+                        results.add((ResultSet) result);
+                    }
+                }
+                return result;
+            }
+        }
+
+        void reset() {
+            inUse = false;
+            try {
+                if (evicted) {
+                    physical.close();
+                } else {
+                    physical.clearParameters();
+                    physical.clearBatch();
+                }
+            } catch (SQLException e) {
+                // A broken statement will be noticed by the next caller
+            }
+        }
+
+        void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    physical.close();
+                } catch (SQLException e) {
+                    // Ignore, it is being thrown away
+                }
+            }
+        }
+    }
+
+    // A single borrow of a pooled connection. Each borrow gets its own proxy so a
+    // caller holding on to a returned connection cannot use it behind the next borrower.
+    private class Lease implements InvocationHandler {
+        final PooledConnection pooled;
+        final Connection proxy;
+        private volatile boolean returned = false;
+
+        Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    ConnectionPool.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!returned) {
+                            returned = true;
+                            release(pooled);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            if (method.getName().equals("prepareStatement") && args != null) {
+                if (args.length == 1) {
+                    return pooled.prepare((Connection) proxy, (String) args[0], Statement.NO_GENERATED_KEYS);
+                }
+                if (args.length == 2 && method.getParameterTypes()[1] == int.class) {
+                    return pooled.prepare((Connection) proxy, (String) args[0], (Integer) args[1]);
+                }
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,16 +1,53 @@
 package database;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBHelper {
-    private static final String URL = "jdbc:mysql://localhost:3306/airline_system";
+    // rewriteBatchedStatements turns JDBC batches into multi-row INSERTs;
+    // useCursorFetch lets a positive fetch size stream rows through a server-side cursor
+    private static final String URL = "jdbc:mysql://localhost:3309/traveller_class"
+            + "?rewriteBatchedStatements=true&useCursorFetch=true";
     private static final String USER = "root";
-    private static final String PASSWORD = "";
+    private static final String PASSWORD = "12345678";
 
+    // Pool sizing, overridable with -Dtraveller.pool.* when tuning for booking peaks
+    private static final int POOL_MAX_SIZE = Integer.getInteger("traveller.pool.maxSize", 10);
+    private static final long POOL_MAX_WAIT_MS = Long.getLong("traveller.pool.maxWaitMs", 5_000L);
+    private static final long POOL_IDLE_TIMEOUT_MS = Long.getLong("traveller.pool.idleTimeoutMs", 300_000L);
+    private static final long POOL_LEAK_THRESHOLD_MS = Long.getLong("traveller.pool.leakThresholdMs", 60_000L);
+    // Prepared statements kept open per pooled connection (LRU), 0 disables the cache
+    private static final int STATEMENT_CACHE_SIZE = Integer.getInteger("traveller.pool.statementCacheSize", 32);
+
+    private static ConnectionPool pool;
+
+    /** Returns the pool shared by DatabaseManager and all DAOs, creating it on first use. */
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null || pool.isClosed()) {
+            try {
+                Class.forName("com.mysql.cj.jdbc.Driver");
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("MySQL JDBC Driver not found", e);
+            }
+            pool = new ConnectionPool(URL, USER, PASSWORD, POOL_MAX_SIZE,
+                    POOL_MAX_WAIT_MS, POOL_IDLE_TIMEOUT_MS, POOL_LEAK_THRESHOLD_MS, STATEMENT_CACHE_SIZE);
+        }
+        return pool;
+    }
+
+    /** Borrows a pooled connection; closing it returns it to the pool. */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
     }
-}
 
+    public static ConnectionPool.Stats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+}
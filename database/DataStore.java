@@ -0,0 +1,140 @@
+package database;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import model.Airline;
+import model.Airport;
+import model.Flight;
+
+/**
+ * Storage backend for the booking system: users, flights, seats, bookings,
+ * payments and reference data.
+ *
+ * {@link DatabaseManager} is the MySQL implementation and
+ * {@link InMemoryDataStore} keeps everything in process, with the same
+ * uniqueness rules, for benchmarks, stress tests and offline kiosks.
+ * Use {@link #open()} to pick one from the {@code traveller.storage}
+ * system property.
+ */
+public interface DataStore extends AutoCloseable {
+
+    /** Value of {@code traveller.storage} that selects the in-memory backend. */
+    String MEMORY = "memory";
+
+    /**
+     * Opens the backend named by {@code -Dtraveller.storage}: "mysql" (the
+     * default) or "memory".
+     */
+    static DataStore open() throws SQLException {
+        String backend = System.getProperty("traveller.storage", "mysql");
+        if (MEMORY.equalsIgnoreCase(backend)) {
+            return new InMemoryDataStore();
+        }
+        if (!"mysql".equalsIgnoreCase(backend)) {
+            throw new IllegalArgumentException("Unknown storage backend: " + backend);
+        }
+        return new DatabaseManager();
+    }
+
+    // ========== Users ==========
+
+    /**
+     * @return the generated user id
+     * @throws DuplicateUserException if the email, passport or visa is already taken
+     * @throws IllegalArgumentException if a required field is missing
+     */
+    int addUser(String fullname, Date dob, String nationality,
+                String passportNumber, String visaNumber, String email) throws SQLException;
+
+    // ========== Flights ==========
+
+    /** @return the generated flight id, or -1 if the flight could not be added (e.g. no schedule, or the number already departs then) */
+    int addFlight(String flightNumber, String departureLocation, String arrivalLocation,
+                  Timestamp departureTime, Timestamp arrivalTime, double price);
+
+    List<Flight> listFlights() throws SQLException;
+
+    // ========== Seats ==========
+    // A seat belongs to one flight: its number and departure, as in addFlight.
+
+    /** @throws SQLException with SQLState 23000 if the seat is already booked */
+    boolean addFlightSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException;
+
+    BatchResult addFlightSeats(String flightNumber, Timestamp departureTime, List<String> seatIds);
+
+    /**
+     * Takes a seat for this caller, safely against other processes selling the
+     * same flight. Use this instead of isSeatAvailable followed by addFlightSeat.
+     *
+     * @return true if the seat is now ours, false if it was already booked
+     */
+    boolean claimSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException;
+
+    /** @return true if the seat was booked and is now free */
+    boolean releaseSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException;
+
+    /** A snapshot for display; the answer can change before a booking is made. */
+    boolean isSeatAvailable(String flightNumber, Timestamp departureTime, String seatId) throws SQLException;
+
+    List<String> getBookedSeats(String flightNumber, Timestamp departureTime) throws SQLException;
+
+    // ========== Bookings ==========
+
+    /** @return the generated booking id, or -1 on failure */
+    int createBooking(int passengerId, String flightId, Timestamp departureTime, String seatId, Timestamp bookingTime,
+                      double totalPrice, String bookingStatus, String paymentStatus);
+
+    BatchResult createBookings(List<BookingRecord> bookings);
+
+    boolean updateBookingStatus(int bookingId, String newStatus);
+
+    boolean updatePaymentStatus(int bookingId, String newStatus);
+
+    List<Integer> getBookingsByUser(int userId);
+
+    BookingPage getFirstBookingsPage(int pageSize, String flightId, String status);
+
+    BookingPage getNextBookingsPage(BookingPage.Cursor after, int pageSize, String flightId, String status);
+
+    BookingPage getPreviousBookingsPage(BookingPage.Cursor before, int pageSize, String flightId, String status);
+
+    /**
+     * Runs a booking transaction atomically; see {@link BookingTransaction#commit()}.
+     *
+     * @throws SeatTakenException if someone else already holds the seat
+     */
+    BookingTransaction.Result commitBooking(BookingTransaction transaction) throws SQLException;
+
+    // ========== Payments ==========
+
+    boolean recordPayment(int bookingId, double amount, String paymentMethod, Timestamp paymentDate);
+
+    BatchResult recordPayments(List<PaymentRecord> payments);
+
+    // ========== Reference data ==========
+
+    /** @return the generated id, or -1 if the code is already taken */
+    int addAirline(Airline airline);
+
+    List<Airline> listAirlines();
+
+    /** @return the generated id, or -1 if the code is already taken */
+    int addAirport(Airport airport);
+
+    List<Airport> listAirports();
+
+    // ========== Lifecycle ==========
+
+    boolean isConnected();
+
+    /** How many calls the backend can usefully serve at once; AsyncDatabase sizes its permits from this. */
+    default int getMaxConcurrency() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    void close();
+}
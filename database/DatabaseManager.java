@@ -2,41 +2,129 @@ package database;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-
-public class DatabaseManager {
-    private static final String DB_URL = "jdbc:mysql://localhost:3309/traveller_class";
-    private static final String DB_USER = "root";
-    private static final String DB_PASSWORD = "12345678";
-    
-    private Connection connection;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
+
+import model.Airline;
+import model.Airport;
+import model.Flight;
+
+/** MySQL implementation of {@link DataStore}. */
+public class DatabaseManager implements DataStore {
+    // MySQL "Duplicate entry" for a unique key
+    static final int ER_DUP_ENTRY = 1062;
+
+    private final AirlineDAO airlineDAO = new AirlineDAO();
+    private final AirportDAO airportDAO = new AirportDAO();
+    private final BookingDAO bookingDAO = new BookingDAO();
+    // Shared with the DAOs; see DBHelper for the connection settings
+    private final ConnectionPool pool;
+    // Rows per executeBatch round trip for the createBookings/recordPayments/addFlightSeats batch API
+    private int batchChunkSize = Integer.getInteger("traveller.db.batchChunkSize", 500);
+    // Rows fetched per server round trip by queryStream (server-side cursor, see DBHelper URL)
+    private int fetchSize = Integer.getInteger("traveller.db.fetchSize", 500);
+    // Schema version after startup migrations (0 when traveller.db.migrate=false and never migrated);
+    // writes that rely on unique keys are refused while it is below SchemaMigrator.getLatestVersion()
+    private final int schemaVersion;
     
     public DatabaseManager() throws SQLException {
         try {
-            // Load the MySQL JDBC driver
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            // Establish connection
-            this.connection = DriverManager.getConnection(DB_URL, DB_USER, DB_PASSWORD);
-            System.out.println("Database COnnected Succesfully");
-         } catch (ClassNotFoundException e) {
+            this.pool = DBHelper.getPool();
+        } catch (IllegalStateException e) {
             throw new SQLException("MySQL JDBC Driver not found", e);
         }
+        // Borrow once up front so an unreachable server is reported at startup
+        try (Connection connection = pool.getConnection()) {
+            if (!connection.isValid(2)) {
+                throw new SQLException("Database connection is not usable");
+            }
+            System.out.println("Database COnnected Succesfully");
+        }
+        SchemaMigrator migrator = new SchemaMigrator(pool);
+        if (Boolean.parseBoolean(System.getProperty("traveller.db.migrate", "true"))) {
+            this.schemaVersion = migrator.migrate();
+        } else {
+            this.schemaVersion = migrator.getCurrentVersion();
+        }
     }
     public boolean isConnected() {
-    try {
-        return connection != null && !connection.isClosed();
+    if (pool.isClosed()) {
+        return false;
+    }
+    try (Connection connection = pool.getConnection()) {
+        return connection.isValid(2);
     } catch (SQLException e) {
         return false;
     }
 }
 
-public Connection getConnection() {
-    return connection;
+/**
+ * Borrows a connection from the shared pool. The caller must close it,
+ * which hands it back to the pool rather than closing the socket.
+ */
+public Connection getConnection() throws SQLException {
+    return pool.getConnection();
+}
+
+public ConnectionPool.Stats getPoolStats() {
+    return pool.getStats();
+}
+
+// Beyond the pool size callers would only queue for a connection
+@Override
+public int getMaxConcurrency() {
+    return pool.getStats().getMaxSize();
+}
+
+public int getSchemaVersion() {
+    return schemaVersion;
+}
+
+// Seat claims and registration rely on the unique keys; while a migration
+// that adds them is incomplete, a seat or a user could be taken twice
+private void requireMigrated() throws SQLException {
+    int latest = SchemaMigrator.getLatestVersion();
+    if (schemaVersion < latest) {
+        throw new SQLException("Bookings are disabled: the database schema is at version " + schemaVersion
+                + " of " + latest + ", so the unique keys they rely on may be missing (see the startup log)");
+    }
+}
+
+public int getBatchChunkSize() {
+    return batchChunkSize;
+}
+
+public void setBatchChunkSize(int batchChunkSize) {
+    if (batchChunkSize <= 0) {
+        throw new IllegalArgumentException("Batch chunk size must be positive");
+    }
+    this.batchChunkSize = batchChunkSize;
+}
+
+public int getFetchSize() {
+    return fetchSize;
+}
+
+public void setFetchSize(int fetchSize) {
+    if (fetchSize <= 0) {
+        throw new IllegalArgumentException("Fetch size must be positive");
+    }
+    this.fetchSize = fetchSize;
 }
     
     // Generic method to execute update queries (INSERT, UPDATE, DELETE)
     private int executeUpdate(String query, Object... params) throws SQLException {
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             for (int i = 0; i < params.length; i++) {
                 statement.setObject(i + 1, params[i]);
             }
@@ -44,13 +132,197 @@ public Connection getConnection() {
         }
     }
     
-    // Generic method to execute queries that return a ResultSet
+    // Generic method to run one INSERT for many rows with JDBC batching.
+    // Each chunk is sent as a single rewritten multi-row INSERT (rewriteBatchedStatements
+    // is set on the connection URL) and committed on its own. If a chunk is rejected it is
+    // rolled back and replayed row by row, so the result can say exactly which rows failed.
+    private BatchResult executeBatch(String query, boolean returnKeys, List<Object[]> rows) {
+        BatchResult result = new BatchResult(rows.size());
+        try (Connection connection = pool.getConnection()) {
+            for (int from = 0; from < rows.size(); from += batchChunkSize) {
+                int to = Math.min(from + batchChunkSize, rows.size());
+                if (!executeChunk(connection, query, returnKeys, rows, from, to, result)) {
+                    executeRowByRow(connection, query, returnKeys, rows, from, to, result);
+                }
+            }
+        } catch (SQLException e) {
+            result.failRemaining(e);
+        }
+        return result;
+    }
+
+    private boolean executeChunk(Connection connection, String query, boolean returnKeys,
+                                 List<Object[]> rows, int from, int to, BatchResult result) throws SQLException {
+        long[] keys = new long[to - from];
+        Arrays.fill(keys, -1);
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(query,
+                returnKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS)) {
+            for (int i = from; i < to; i++) {
+                Object[] params = rows.get(i);
+                for (int p = 0; p < params.length; p++) {
+                    statement.setObject(p + 1, params[p]);
+                }
+                statement.addBatch();
+            }
+            statement.executeBatch();
+            if (returnKeys) {
+                // Keys come back in insertion order, one per row
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    for (int i = 0; i < keys.length && generatedKeys.next(); i++) {
+                        keys[i] = generatedKeys.getLong(1);
+                    }
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            return false;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        for (int i = from; i < to; i++) {
+            result.succeeded(i, keys[i - from]);
+        }
+        return true;
+    }
+
+    private void executeRowByRow(Connection connection, String query, boolean returnKeys,
+                                 List<Object[]> rows, int from, int to, BatchResult result) {
+        for (int i = from; i < to; i++) {
+            try (PreparedStatement statement = connection.prepareStatement(query,
+                    returnKeys ? Statement.RETURN_GENERATED_KEYS : Statement.NO_GENERATED_KEYS)) {
+                Object[] params = rows.get(i);
+                for (int p = 0; p < params.length; p++) {
+                    statement.setObject(p + 1, params[p]);
+                }
+                statement.executeUpdate();
+                long key = -1;
+                if (returnKeys) {
+                    try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                        if (generatedKeys.next()) {
+                            key = generatedKeys.getLong(1);
+                        }
+                    }
+                }
+                result.succeeded(i, key);
+            } catch (SQLException e) {
+                result.failed(i, e);
+            }
+        }
+    }
+    
+    // Generic method to execute queries that return a ResultSet.
+    // The rows are copied into a disconnected CachedRowSet so the pooled
+    // connection can be returned before the caller starts reading.
     public ResultSet executeQuery(String query, Object... params) throws SQLException {
-        PreparedStatement statement = connection.prepareStatement(query);
-        for (int i = 0; i < params.length; i++) {
-            statement.setObject(i + 1, params[i]);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+                rows.populate(rs);
+                return rows;
+            }
+        }
+    }
+    
+    // ========== Row-Mapped Queries ==========
+    /**
+     * Runs a query and streams the mapped rows as they arrive from the server,
+     * {@code fetchSize} rows per round trip, so memory use does not grow with the
+     * result size. The stream keeps a pooled connection until it is closed, so
+     * always consume it in try-with-resources. SQL errors raised while reading
+     * surface as {@link UncheckedSQLException}.
+     */
+    public <T> Stream<T> queryStream(String query, RowMapper<T> mapper, Object... params) throws SQLException {
+        Connection connection = pool.getConnection();
+        PreparedStatement statement = null;
+        ResultSet rs = null;
+        try {
+            // Forward-only, read-only statements are not cached and can use a cursor
+            statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            rs = statement.executeQuery();
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(rs, statement, connection);
+            throw e;
+        }
+
+        final ResultSet rows = rs;
+        final PreparedStatement openStatement = statement;
+        Spliterator<T> spliterator = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE, Spliterator.ORDERED) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rows.next()) {
+                        return false;
+                    }
+                    action.accept(mapper.map(rows));
+                    return true;
+                } catch (SQLException e) {
+                    throw new UncheckedSQLException(e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false)
+                .onClose(() -> closeQuietly(rows, openStatement, connection));
+    }
+
+    /**
+     * Callback flavour of {@link #queryStream}: hands each mapped row to the callback
+     * and releases the connection before returning.
+     *
+     * @return number of rows processed
+     */
+    public <T> long queryEach(String query, RowMapper<T> mapper, Consumer<? super T> callback,
+                              Object... params) throws SQLException {
+        try (Stream<T> rows = queryStream(query, mapper, params)) {
+            long[] count = {0};
+            rows.forEach(row -> {
+                callback.accept(row);
+                count[0]++;
+            });
+            return count[0];
+        } catch (UncheckedSQLException e) {
+            throw e.getCause();
+        }
+    }
+
+    /** Maps the first row of the result, if there is one. */
+    public <T> Optional<T> queryForObject(String query, RowMapper<T> mapper, Object... params) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? Optional.ofNullable(mapper.map(rs)) : Optional.empty();
+            }
+        }
+    }
+
+    private static void closeQuietly(ResultSet rs, Statement statement, Connection connection) {
+        try {
+            if (rs != null) rs.close();
+        } catch (SQLException e) {
+            // Closing anyway
+        }
+        try {
+            if (statement != null) statement.close();
+        } catch (SQLException e) {
+            // Closing anyway
+        }
+        try {
+            if (connection != null) connection.close();
+        } catch (SQLException e) {
+            // Closing anyway
         }
-        return statement.executeQuery();
     }
     
     // ========== Passport Operations ==========
@@ -77,7 +349,10 @@ public Connection getConnection() {
     
     // ========== User Operations ==========
     /**
- * Adds a new user to the database with proper validation and duplicate checking
+ * Adds a new user to the database with proper validation and duplicate checking.
+ * The passport/visa rows and the user row are written in one transaction; duplicates
+ * are detected by the unique keys on users (see the schema migrations) instead of
+ * separate SELECT COUNT(*) look-ups.
  * 
  * @param fullname User's full name (required)
  * @param dob Date of birth (required)
@@ -88,66 +363,55 @@ public Connection getConnection() {
  * @return The generated user ID if successful, -1 if failed
  * @throws SQLException if database error occurs
  * @throws IllegalArgumentException if validation fails
+ * @throws DuplicateUserException if the email, passport or visa is already taken
  */
 public int addUser(String fullname, Date dob, String nationality, 
                   String passportNumber, String visaNumber, String email) 
                   throws SQLException, IllegalArgumentException {
-    
-    // Validate required fields
-    if (fullname == null || fullname.trim().isEmpty()) {
-        throw new IllegalArgumentException("Full name cannot be empty");
-    }
-    if (dob == null) {
-        throw new IllegalArgumentException("Date of birth cannot be null");
-    }
-    if (nationality == null || nationality.trim().isEmpty()) {
-        throw new IllegalArgumentException("Nationality cannot be empty");
-    }
-    if (email == null || email.trim().isEmpty()) {
-        throw new IllegalArgumentException("Email cannot be empty");
-    }
-
-    // Check for duplicate email
-    if (isEmailExists(email)) {
-        throw new IllegalArgumentException("Email '" + email + "' already exists");
-    }
-
-    if (passportNumber != null && !passportNumber.trim().isEmpty()) {
-
-    if (!isPassportExists(passportNumber)) {
-        
-        addPassport(passportNumber, null, null, null);
-    }
-
-    if (isPassportInUse(passportNumber)) {
-        throw new IllegalArgumentException(
-            "Passport '" + passportNumber + "' is already associated with another user");
+    try (Connection connection = pool.getConnection()) {
+        connection.setAutoCommit(false);
+        try {
+            int userId = insertUser(connection, fullname, dob, nationality, passportNumber, visaNumber, email);
+            connection.commit();
+            return userId;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
     }
 }
 
-// ── Visa: create on the fly if it is new ───────────────────────
-if (visaNumber != null && !visaNumber.trim().isEmpty()) {
-
-    if (!isVisaExists(visaNumber)) {
-        /*  Same idea: create minimal visa row.
-            visaType / dates / issuingCountry can be NULL now
-            and completed later from your GUI if desired.          */
-        addVisa(visaNumber, null, null, null, null);
+/**
+ * Does the work of addUser on a connection supplied by the caller, without
+ * touching its transaction. Used by addUser and by BookingTransaction.
+ * At most three statements: passport upsert, visa upsert and the user insert.
+ */
+int insertUser(Connection connection, String fullname, Date dob, String nationality,
+               String passportNumber, String visaNumber, String email) throws SQLException {
+    requireMigrated();
+    validateUser(fullname, dob, nationality, email);
+    passportNumber = blankToNull(passportNumber);
+    visaNumber = blankToNull(visaNumber);
+
+    // Create minimal passport/visa rows on the fly; details can be completed later
+    if (passportNumber != null) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO passports (passport_number) VALUES (?)")) {
+            stmt.setString(1, passportNumber);
+            stmt.executeUpdate();
+        }
     }
-
-    if (isVisaInUse(visaNumber)) {
-        throw new IllegalArgumentException(
-            "Visa '" + visaNumber + "' is already associated with another user");
+    if (visaNumber != null) {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT IGNORE INTO visas (visa_number) VALUES (?)")) {
+            stmt.setString(1, visaNumber);
+            stmt.executeUpdate();
+        }
     }
-}
-
-     
-
-
 
-
-
-    String query = "INSERT IGNORE INTO users (fullname, dob, nationality, passport_number, visa_number, email) " +
+    String query = "INSERT INTO users (fullname, dob, nationality, passport_number, visa_number, email) " +
                   "VALUES (?, ?, ?, ?, ?, ?)";
 
     try (PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
@@ -171,74 +435,72 @@ if (visaNumber != null && !visaNumber.trim().isEmpty()) {
             }
         }
     } catch (SQLException e) {
-        // Handle specific constraint violation errors
-        if (e.getSQLState() != null && e.getSQLState().equals("23000")) {
-            if (e.getMessage().contains("email")) {
-                throw new IllegalArgumentException("Email '" + email + "' already exists", e);
-            } else if (e.getMessage().contains("passport_number")) {
-                throw new IllegalArgumentException("Passport '" + passportNumber + "' is already in use", e);
-            } else if (e.getMessage().contains("visa_number")) {
-                throw new IllegalArgumentException("Visa '" + visaNumber + "' is already in use", e);
+        // Only a duplicate entry names a unique key; other 23000 errors (FKs, NOT NULL) are re-thrown as is
+        if (e.getErrorCode() == ER_DUP_ENTRY) {
+            String key = duplicateKeyName(e.getMessage());
+            if ("uq_users_email".equals(key)) {
+                throw new DuplicateUserException(DuplicateUserException.Field.EMAIL, email,
+                    "Email '" + email + "' already exists", e);
+            } else if ("uq_users_passport_number".equals(key)) {
+                throw new DuplicateUserException(DuplicateUserException.Field.PASSPORT, passportNumber,
+                    "Passport '" + passportNumber + "' is already associated with another user", e);
+            } else if ("uq_users_visa_number".equals(key)) {
+                throw new DuplicateUserException(DuplicateUserException.Field.VISA, visaNumber,
+                    "Visa '" + visaNumber + "' is already associated with another user", e);
             }
         }
         throw e; // Re-throw other SQL exceptions
     }
 }
 
-// Helper methods for validation
-private boolean isEmailExists(String email) throws SQLException {
-    String query = "SELECT COUNT(*) FROM users WHERE email = ?";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
-        stmt.setString(1, email);
-        try (ResultSet rs = stmt.executeQuery()) {
-            return rs.next() && rs.getInt(1) > 0;
-        }
-    }
+/**
+ * The key named by a MySQL duplicate-entry message, without its table:
+ * "Duplicate entry 'a@b' for key 'users.uq_users_email'" gives
+ * "uq_users_email". The key is read from the end of the message, so the
+ * duplicated value cannot be mistaken for it. Null if there is none.
+ */
+static String duplicateKeyName(String message) {
+    String marker = " for key '";
+    int start = message == null ? -1 : message.lastIndexOf(marker);
+    if (start < 0 || !message.endsWith("'")) {
+        return null;
+    }
+    String key = message.substring(start + marker.length(), message.length() - 1);
+    return key.substring(key.lastIndexOf('.') + 1);
 }
 
-private boolean isPassportExists(String passportNumber) throws SQLException {
-    if (passportNumber == null) return false;
-    String query = "SELECT COUNT(*) FROM passports WHERE passport_number = ?";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
-        stmt.setString(1, passportNumber);
-        try (ResultSet rs = stmt.executeQuery()) {
-            return rs.next() && rs.getInt(1) > 0;
-        }
+// Helper methods for validation, shared with InMemoryDataStore
+static void validateUser(String fullname, Date dob, String nationality, String email) {
+    if (fullname == null || fullname.trim().isEmpty()) {
+        throw new IllegalArgumentException("Full name cannot be empty");
     }
-}
-
-private boolean isPassportInUse(String passportNumber) throws SQLException {
-    if (passportNumber == null) return false;
-    String query = "SELECT COUNT(*) FROM users WHERE passport_number = ?";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
-        stmt.setString(1, passportNumber);
-        try (ResultSet rs = stmt.executeQuery()) {
-            return rs.next() && rs.getInt(1) > 0;
-        }
+    if (dob == null) {
+        throw new IllegalArgumentException("Date of birth cannot be null");
+    }
+    if (nationality == null || nationality.trim().isEmpty()) {
+        throw new IllegalArgumentException("Nationality cannot be empty");
+    }
+    if (email == null || email.trim().isEmpty()) {
+        throw new IllegalArgumentException("Email cannot be empty");
     }
 }
 
-private boolean isVisaExists(String visaNumber) throws SQLException {
-    if (visaNumber == null) return false;
-    String query = "SELECT COUNT(*) FROM visas WHERE visa_number = ?";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
-        stmt.setString(1, visaNumber);
-        try (ResultSet rs = stmt.executeQuery()) {
-            return rs.next() && rs.getInt(1) > 0;
-        }
-    }
+static String blankToNull(String value) {
+    return value != null && value.trim().isEmpty() ? null : value;
 }
 
-private boolean isVisaInUse(String visaNumber) throws SQLException {
-    if (visaNumber == null) return false;
-    String query = "SELECT COUNT(*) FROM users WHERE visa_number = ?";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
-        stmt.setString(1, visaNumber);
+private boolean isPassportExists(String passportNumber) throws SQLException {
+    if (passportNumber == null) return false;
+    String query = "SELECT COUNT(*) FROM passports WHERE passport_number = ?";
+    try (Connection connection = pool.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(query)) {
+        stmt.setString(1, passportNumber);
         try (ResultSet rs = stmt.executeQuery()) {
             return rs.next() && rs.getInt(1) > 0;
         }
     }
 }
+
     
     // ========== Aircraft Operations ==========
     public boolean addAircraft(String registrationNumber, String model, String manufacturer, 
@@ -260,7 +522,13 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
         String query = "INSERT INTO flight (flightNumber, departureLocation, arrivalLocation, " +
                       "departureTime, arrivalTime, price) VALUES (?, ?, ?, ?, ?, ?)";
         try {
-            PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            requireMigrated();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, flightNumber);
             statement.setString(2, departureLocation);
             statement.setString(3, arrivalLocation);
@@ -287,19 +555,20 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
     }
     
     // ========== Booking Operations ==========
-    public int createBooking(int passengerId, String flightId, String seatId, Timestamp bookingTime, 
+    public int createBooking(int passengerId, String flightId, Timestamp departureTime, String seatId, Timestamp bookingTime, 
                            double totalPrice, String bookingStatus, String paymentStatus) {
-        String query = "INSERT INTO booking (passenger_id, flightId, seatId, bookingTime, " +
-                      "totalPrice, bookingStatus, paymentStatus) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try {
-            PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+        String query = "INSERT INTO booking (passenger_id, flightId, departureTime, seatId, bookingTime, " +
+                      "totalPrice, bookingStatus, paymentStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
             statement.setInt(1, passengerId);
             statement.setString(2, flightId);
-            statement.setString(3, seatId);
-            statement.setTimestamp(4, bookingTime);
-            statement.setDouble(5, totalPrice);
-            statement.setString(6, bookingStatus);
-            statement.setString(7, paymentStatus);
+            statement.setTimestamp(3, departureTime);
+            statement.setString(4, seatId);
+            statement.setTimestamp(5, bookingTime);
+            statement.setDouble(6, totalPrice);
+            statement.setString(7, bookingStatus);
+            statement.setString(8, paymentStatus);
             
             int affectedRows = statement.executeUpdate();
             if (affectedRows == 0) {
@@ -319,6 +588,22 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
         }
     }
     
+    /**
+     * Inserts many bookings using batched multi-row INSERTs.
+     *
+     * @return per-row outcome; successful rows carry the generated BookingId
+     */
+    public BatchResult createBookings(List<BookingRecord> bookings) {
+        String query = "INSERT INTO booking (passenger_id, flightId, departureTime, seatId, bookingTime, " +
+                      "totalPrice, bookingStatus, paymentStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(bookings.size());
+        for (BookingRecord b : bookings) {
+            rows.add(new Object[]{b.getPassengerId(), b.getFlightId(), b.getDepartureTime(), b.getSeatId(), b.getBookingTime(),
+                                  b.getTotalPrice(), b.getBookingStatus(), b.getPaymentStatus()});
+        }
+        return executeBatch(query, true, rows);
+    }
+    
     // ========== Payment Operations ==========
     public boolean recordPayment(int bookingId, double amount, String paymentMethod, Timestamp paymentDate) {
         String query = "INSERT INTO payments (bookingId, amount, paymentMethod, paymentDate) VALUES (?, ?, ?, ?)";
@@ -330,22 +615,61 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
         }
     }
     
+    /**
+     * Inserts many payments using batched multi-row INSERTs.
+     *
+     * @return per-row outcome; successful rows carry the generated payment id
+     */
+    public BatchResult recordPayments(List<PaymentRecord> payments) {
+        String query = "INSERT INTO payments (bookingId, amount, paymentMethod, paymentDate) VALUES (?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(payments.size());
+        for (PaymentRecord p : payments) {
+            rows.add(new Object[]{p.getBookingId(), p.getAmount(), p.getPaymentMethod(), p.getPaymentDate()});
+        }
+        return executeBatch(query, true, rows);
+    }
+    
     // ========== Getter Methods ==========
+    public <T> Optional<T> getUserById(int userId, RowMapper<T> mapper) throws SQLException {
+        return queryForObject("SELECT * FROM users WHERE id = ?", mapper, userId);
+    }
+    
+    public <T> Optional<T> getFlightById(int flightId, RowMapper<T> mapper) throws SQLException {
+        return queryForObject("SELECT * FROM flight WHERE id = ?", mapper, flightId);
+    }
+    
+    public <T> Optional<T> getBookingById(int bookingId, RowMapper<T> mapper) throws SQLException {
+        return queryForObject("SELECT * FROM booking WHERE BookingId = ?", mapper, bookingId);
+    }
+    
+    /** Streams the payments of a booking; close the stream when done. */
+    public <T> Stream<T> getPaymentsForBooking(int bookingId, RowMapper<T> mapper) throws SQLException {
+        return queryStream("SELECT * FROM payments WHERE bookingId = ?", mapper, bookingId);
+    }
+
+    /** @deprecated copies the rows into memory; use {@link #getUserById(int, RowMapper)} */
+    @Deprecated
     public ResultSet getUserById(int userId) throws SQLException {
         String query = "SELECT * FROM users WHERE id = ?";
         return executeQuery(query, userId);
     }
     
+    /** @deprecated copies the rows into memory; use {@link #getFlightById(int, RowMapper)} */
+    @Deprecated
     public ResultSet getFlightById(int flightId) throws SQLException {
         String query = "SELECT * FROM flight WHERE id = ?";
         return executeQuery(query, flightId);
     }
     
+    /** @deprecated copies the rows into memory; use {@link #getBookingById(int, RowMapper)} */
+    @Deprecated
     public ResultSet getBookingById(int bookingId) throws SQLException {
         String query = "SELECT * FROM booking WHERE BookingId = ?";
         return executeQuery(query, bookingId);
     }
     
+    /** @deprecated copies the rows into memory; use {@link #getPaymentsForBooking(int, RowMapper)} */
+    @Deprecated
     public ResultSet getPaymentsForBooking(int bookingId) throws SQLException {
         String query = "SELECT * FROM payments WHERE bookingId = ?";
         return executeQuery(query, bookingId);
@@ -374,13 +698,7 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
     
     // ========== Close Connection ==========
     public void close() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        DBHelper.shutdown();
     }
     
     // Additional helper methods can be added as needed
@@ -390,7 +708,8 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
         List<Integer> bookings = new ArrayList<>();
         String query = "SELECT BookingId FROM booking WHERE passenger_id = ?";
         
-        try (PreparedStatement statement = connection.prepareStatement(query)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query)) {
             statement.setInt(1, userId);
             ResultSet rs = statement.executeQuery();
             
@@ -437,27 +756,78 @@ private boolean isVisaInUse(String visaNumber) throws SQLException {
     }
 
     // Add these methods to DatabaseManager.java
-public boolean addFlightSeat(String flightNumber, String seatId) throws SQLException {
-    String query = "INSERT INTO flight_seats (flight_number, seat_id, is_booked) VALUES (?, ?, true)";
-    return executeUpdate(query, flightNumber, seatId) > 0;
+public boolean addFlightSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+    requireMigrated();
+    String query = "INSERT INTO flight_seats (flight_number, departure_time, seat_id, is_booked) VALUES (?, ?, ?, true)";
+    return executeUpdate(query, flightNumber, departureTime, seatId) > 0;
+}
+
+/**
+ * Marks many seats of one flight as booked using batched multi-row INSERTs.
+ * A seat that is already taken fails on its own without affecting the others.
+ */
+public BatchResult addFlightSeats(String flightNumber, Timestamp departureTime, List<String> seatIds) {
+    try {
+        requireMigrated();
+    } catch (SQLException e) {
+        BatchResult refused = new BatchResult(seatIds.size());
+        refused.failRemaining(e);
+        return refused;
+    }
+    String query = "INSERT INTO flight_seats (flight_number, departure_time, seat_id, is_booked) VALUES (?, ?, ?, true)";
+    List<Object[]> rows = new ArrayList<>(seatIds.size());
+    for (String seatId : seatIds) {
+        rows.add(new Object[]{flightNumber, departureTime, seatId});
+    }
+    return executeBatch(query, false, rows);
 }
 
-public boolean isSeatAvailable(String flightNumber, String seatId) throws SQLException {
-    String query = "SELECT COUNT(*) FROM flight_seats WHERE flight_number = ? AND seat_id = ? AND is_booked = false";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
+/**
+ * Claims a seat with a single INSERT. The unique key on (flight_number,
+ * departure_time, seat_id) makes the database the arbiter, so terminals on different machines can sell
+ * the same flight without table locks: exactly one INSERT per seat succeeds and
+ * every other one gets a duplicate-key error, which is reported as false.
+ */
+public boolean claimSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+    requireMigrated();
+    String query = "INSERT INTO flight_seats (flight_number, departure_time, seat_id, is_booked) VALUES (?, ?, ?, true)";
+    try {
+        return executeUpdate(query, flightNumber, departureTime, seatId) > 0;
+    } catch (SQLIntegrityConstraintViolationException e) {
+        if (e.getErrorCode() == ER_DUP_ENTRY) {
+            return false;
+        }
+        throw e;
+    }
+}
+
+// Deleting the row frees the seat for the next claim's INSERT
+public boolean releaseSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+    String query = "DELETE FROM flight_seats WHERE flight_number = ? AND departure_time = ? AND seat_id = ? AND is_booked = true";
+    return executeUpdate(query, flightNumber, departureTime, seatId) > 0;
+}
+
+// Seats have no row until they are booked, so a seat is available unless a booked row exists
+public boolean isSeatAvailable(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+    String query = "SELECT 1 FROM flight_seats WHERE flight_number = ? AND departure_time = ? AND seat_id = ? AND is_booked = true LIMIT 1";
+    try (Connection connection = pool.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(query)) {
         stmt.setString(1, flightNumber);
-        stmt.setString(2, seatId);
+        stmt.setTimestamp(2, departureTime);
+        stmt.setString(3, seatId);
         try (ResultSet rs = stmt.executeQuery()) {
-            return rs.next() && rs.getInt(1) > 0;
+            return !rs.next();
         }
     }
 }
 
-public List<String> getBookedSeats(String flightNumber) throws SQLException {
+public List<String> getBookedSeats(String flightNumber, Timestamp departureTime) throws SQLException {
     List<String> bookedSeats = new ArrayList<>();
-    String query = "SELECT seat_id FROM flight_seats WHERE flight_number = ? AND is_booked = true";
-    try (PreparedStatement stmt = connection.prepareStatement(query)) {
+    String query = "SELECT seat_id FROM flight_seats WHERE flight_number = ? AND departure_time = ? AND is_booked = true";
+    try (Connection connection = pool.getConnection();
+         PreparedStatement stmt = connection.prepareStatement(query)) {
         stmt.setString(1, flightNumber);
+        stmt.setTimestamp(2, departureTime);
         try (ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
                 bookedSeats.add(rs.getString("seat_id"));
@@ -467,14 +837,77 @@ public List<String> getBookedSeats(String flightNumber) throws SQLException {
     return bookedSeats;
 }
 
+/** Streams every flight through a server-side cursor; close the stream when done. */
+public <T> Stream<T> getAllFlights(RowMapper<T> mapper) throws SQLException {
+    return queryStream("SELECT * FROM flight", mapper);
+}
+
+/** @deprecated copies every flight into memory; use {@link #getAllFlights(RowMapper)} */
+@Deprecated
 public ResultSet getAllFlights() throws SQLException {
     String query = "SELECT * FROM flight";
     return executeQuery(query);
 }
 
-public boolean addFlightToDatabase(String flightNumber, String departure, String arrival, double price) throws SQLException {
-    String query = "INSERT INTO flight (flightNumber, departureLocation, arrivalLocation, price) VALUES (?, ?, ?, ?)";
-    return executeUpdate(query, flightNumber, departure, arrival, price) > 0;
+public boolean addFlightToDatabase(String flightNumber, String departure, String arrival,
+                                   Timestamp departureTime, Timestamp arrivalTime, double price) throws SQLException {
+    String query = "INSERT INTO flight (flightNumber, departureLocation, arrivalLocation, departureTime, arrivalTime, price) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+    return executeUpdate(query, flightNumber, departure, arrival, departureTime, arrivalTime, price) > 0;
+}
+
+public List<Flight> listFlights() throws SQLException {
+    List<Flight> flights = new ArrayList<>();
+    queryEach("SELECT flightNumber, departureLocation, arrivalLocation, departureTime, arrivalTime, price FROM flight",
+        rs -> {
+            // A flight is scheduled only when both times are set and in order
+            Timestamp departs = rs.getTimestamp("departureTime");
+            Timestamp arrives = rs.getTimestamp("arrivalTime");
+            boolean scheduled = departs != null && arrives != null && !arrives.before(departs);
+            return new Flight(
+                rs.getString("flightNumber"),
+                rs.getString("departureLocation"),
+                rs.getString("arrivalLocation"),
+                rs.getDouble("price"),
+                scheduled ? departs.toLocalDateTime() : null,
+                scheduled ? arrives.toLocalDateTime() : null);
+        },
+        flights::add);
+    return flights;
+}
+
+public BookingTransaction.Result commitBooking(BookingTransaction transaction) throws SQLException {
+    requireMigrated();
+    return transaction.commitOn(this);
+}
+
+// ========== Reference data and paging (delegated to the DAOs) ==========
+public int addAirline(Airline airline) {
+    return airlineDAO.addAirline(airline);
+}
+
+public List<Airline> listAirlines() {
+    return airlineDAO.getAllAirlines();
+}
+
+public int addAirport(Airport airport) {
+    return airportDAO.addAirport(airport);
+}
+
+public List<Airport> listAirports() {
+    return airportDAO.getAllAirports();
+}
+
+public BookingPage getFirstBookingsPage(int pageSize, String flightId, String status) {
+    return bookingDAO.getFirstBookingsPage(pageSize, flightId, status);
+}
+
+public BookingPage getNextBookingsPage(BookingPage.Cursor after, int pageSize, String flightId, String status) {
+    return bookingDAO.getNextBookingsPage(after, pageSize, flightId, status);
+}
+
+public BookingPage getPreviousBookingsPage(BookingPage.Cursor before, int pageSize, String flightId, String status) {
+    return bookingDAO.getPreviousBookingsPage(before, pageSize, flightId, status);
 }
 
 
@@ -0,0 +1,28 @@
+package database;
+
+/**
+ * Thrown when registering a user collides with a unique key on the users
+ * table (MySQL error 1062, duplicate entry). It is still an
+ * IllegalArgumentException, so existing callers keep working, but
+ * {@link #getField()} tells them which field was taken.
+ */
+public class DuplicateUserException extends IllegalArgumentException {
+    public enum Field { EMAIL, PASSPORT, VISA }
+
+    private final Field field;
+    private final String value;
+
+    public DuplicateUserException(Field field, String value, String message, Throwable cause) {
+        super(message, cause);
+        this.field = field;
+        this.value = value;
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
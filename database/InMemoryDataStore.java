@@ -0,0 +1,644 @@
+package database;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import model.Airline;
+import model.Airport;
+import model.Flight;
+
+/**
+ * Pure-Java {@link DataStore} that keeps every table in indexed maps.
+ *
+ * It enforces the same rules as the MySQL schema (NOT NULL columns, the
+ * unique keys from the migrations, case-insensitive comparison as with the
+ * default collation) and reports violations the same way, so code written
+ * against DatabaseManager behaves identically here. Reads share a lock and
+ * writes are exclusive; a booking transaction is validated in full before
+ * anything is written, which makes it atomic without an undo log.
+ *
+ * Nothing is persisted: the data lives as long as the instance.
+ */
+public class InMemoryDataStore implements DataStore {
+    private static final String INTEGRITY_VIOLATION = "23000";
+    private static final int ER_BAD_NULL = 1048;
+    private static final int ER_DUP_ENTRY = 1062;
+
+    // Same order as the booking keyset queries: newest first, ties by id
+    private static final Comparator<BookingRecord> NEWEST_FIRST =
+        Comparator.comparing(BookingRecord::getBookingTime).reversed()
+                  .thenComparing(Comparator.comparingInt(BookingRecord::getBookingId).reversed());
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean closed = false;
+
+    // users, by each unique key
+    private int nextUserId = 1;
+    private final Map<String, Integer> usersByEmail = new HashMap<>();
+    private final Map<String, Integer> usersByPassport = new HashMap<>();
+    private final Map<String, Integer> usersByVisa = new HashMap<>();
+
+    // flight
+    private int nextFlightId = 1;
+    private final Map<Integer, Flight> flightsById = new LinkedHashMap<>();
+    private final Map<String, Integer> flightsByDeparture = new HashMap<>(); // uq_flight_departure
+
+    // flight_seats, by flight (number and departure) then seat
+    private final Map<String, Map<String, SeatRow>> seatsByFlight = new HashMap<>();
+
+    // booking
+    private int nextBookingId = 1;
+    private final Map<Integer, BookingRecord> bookingsById = new HashMap<>();
+    private final NavigableSet<BookingRecord> bookingsByTime = new TreeSet<>(NEWEST_FIRST);
+    private final Map<String, NavigableSet<BookingRecord>> bookingsByFlight = new HashMap<>();
+    private final Map<Integer, List<Integer>> bookingsByPassenger = new HashMap<>();
+
+    // payments
+    private int nextPaymentId = 1;
+    private final Map<Integer, PaymentRecord> paymentsById = new HashMap<>();
+
+    // airlines / airports
+    private int nextAirlineId = 1;
+    private int nextAirportId = 1;
+    private final Map<String, Airline> airlinesByCode = new LinkedHashMap<>();
+    private final Map<String, Airport> airportsByCode = new LinkedHashMap<>();
+
+    private static class SeatRow {
+        final String seatId;
+        final boolean booked;
+
+        SeatRow(String seatId, boolean booked) {
+            this.seatId = seatId;
+            this.booked = booked;
+        }
+    }
+
+    // ========== Users ==========
+
+    @Override
+    public int addUser(String fullname, Date dob, String nationality,
+                       String passportNumber, String visaNumber, String email) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            return insertUser(fullname, dob, nationality, passportNumber, visaNumber, email);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private int insertUser(String fullname, Date dob, String nationality,
+                           String passportNumber, String visaNumber, String email) {
+        DatabaseManager.validateUser(fullname, dob, nationality, email);
+        passportNumber = DatabaseManager.blankToNull(passportNumber);
+        visaNumber = DatabaseManager.blankToNull(visaNumber);
+        checkUserUnique(passportNumber, visaNumber, email);
+
+        int id = nextUserId++;
+        if (passportNumber != null) {
+            usersByPassport.put(key(passportNumber), id);
+        }
+        if (visaNumber != null) {
+            usersByVisa.put(key(visaNumber), id);
+        }
+        usersByEmail.put(key(email), id);
+        return id;
+    }
+
+    // Same order as the unique keys on users, so the same field is reported as in MySQL
+    private void checkUserUnique(String passportNumber, String visaNumber, String email) {
+        if (usersByEmail.containsKey(key(email))) {
+            throw new DuplicateUserException(DuplicateUserException.Field.EMAIL, email,
+                "Email '" + email + "' already exists", null);
+        }
+        if (passportNumber != null && usersByPassport.containsKey(key(passportNumber))) {
+            throw new DuplicateUserException(DuplicateUserException.Field.PASSPORT, passportNumber,
+                "Passport '" + passportNumber + "' is already associated with another user", null);
+        }
+        if (visaNumber != null && usersByVisa.containsKey(key(visaNumber))) {
+            throw new DuplicateUserException(DuplicateUserException.Field.VISA, visaNumber,
+                "Visa '" + visaNumber + "' is already associated with another user", null);
+        }
+    }
+
+    // Same match as BookingTransaction on MySQL: email and passport both belong to one user
+    private Integer returningUser(String email, String passportNumber) {
+        Integer byEmail = usersByEmail.get(key(email));
+        if (byEmail == null || passportNumber == null) {
+            return null;
+        }
+        return byEmail.equals(usersByPassport.get(key(passportNumber))) ? byEmail : null;
+    }
+
+    // ========== Flights ==========
+
+    @Override
+    public int addFlight(String flightNumber, String departureLocation, String arrivalLocation,
+                         Timestamp departureTime, Timestamp arrivalTime, double price) {
+        if (flightNumber == null || departureLocation == null || arrivalLocation == null
+                || departureTime == null || arrivalTime == null) {
+            return -1;
+        }
+        if (arrivalTime.before(departureTime)) {
+            return -1;
+        }
+        lock.writeLock().lock();
+        try {
+            if (flightsByDeparture.containsKey(flightKey(flightNumber, departureTime))) {
+                return -1;
+            }
+            int id = nextFlightId++;
+            flightsById.put(id, new Flight(flightNumber, departureLocation, arrivalLocation, price,
+                    departureTime.toLocalDateTime(), arrivalTime.toLocalDateTime()));
+            flightsByDeparture.put(flightKey(flightNumber, departureTime), id);
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> listFlights() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(flightsById.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== Seats ==========
+
+    @Override
+    public boolean addFlightSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            insertSeat(flightNumber, departureTime, seatId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult addFlightSeats(String flightNumber, Timestamp departureTime, List<String> seatIds) {
+        BatchResult result = new BatchResult(seatIds.size());
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < seatIds.size(); i++) {
+                try {
+                    insertSeat(flightNumber, departureTime, seatIds.get(i));
+                    result.succeeded(i, -1);
+                } catch (SQLException e) {
+                    result.failed(i, e);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean claimSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (isSeatTaken(flightNumber, departureTime, seatId)) {
+                return false;
+            }
+            insertSeat(flightNumber, departureTime, seatId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Like DatabaseManager, a released seat has no row
+    @Override
+    public boolean releaseSeat(String flightNumber, Timestamp departureTime, String seatId) {
+        lock.writeLock().lock();
+        try {
+            Map<String, SeatRow> seats = seatsOf(flightNumber, departureTime);
+            SeatRow row = seats == null ? null : seats.get(key(seatId));
+            if (row == null || !row.booked) {
+                return false;
+            }
+            seats.remove(key(seatId));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock
+    private void insertSeat(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+        notNull(flightNumber, "flight_number");
+        notNull(departureTime, "departure_time");
+        notNull(seatId, "seat_id");
+        checkSeatFree(flightNumber, departureTime, seatId);
+        seatsByFlight.computeIfAbsent(flightKey(flightNumber, departureTime), k -> new LinkedHashMap<>())
+                     .put(key(seatId), new SeatRow(seatId, true));
+    }
+
+    private void checkSeatFree(String flightNumber, Timestamp departureTime, String seatId) throws SQLException {
+        if (isSeatTaken(flightNumber, departureTime, seatId)) {
+            throw new SQLException("Duplicate entry '" + flightNumber + "-" + departureTime + "-" + seatId
+                + "' for key 'flight_seats.uq_flight_seats_instance_seat'", INTEGRITY_VIOLATION, ER_DUP_ENTRY);
+        }
+    }
+
+    // Mirrors the flight_seats query: a seat is available unless it has a booked row
+    @Override
+    public boolean isSeatAvailable(String flightNumber, Timestamp departureTime, String seatId) {
+        lock.readLock().lock();
+        try {
+            Map<String, SeatRow> seats = seatsOf(flightNumber, departureTime);
+            SeatRow row = seats == null ? null : seats.get(key(seatId));
+            return row == null || !row.booked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Any row holds the unique key, as in MySQL; caller holds a lock
+    private boolean isSeatTaken(String flightNumber, Timestamp departureTime, String seatId) {
+        Map<String, SeatRow> seats = seatsOf(flightNumber, departureTime);
+        return seats != null && seats.containsKey(key(seatId));
+    }
+
+    // A NULL departure matches no row, as in the WHERE clauses of DatabaseManager
+    private Map<String, SeatRow> seatsOf(String flightNumber, Timestamp departureTime) {
+        return departureTime == null ? null : seatsByFlight.get(flightKey(flightNumber, departureTime));
+    }
+
+    @Override
+    public List<String> getBookedSeats(String flightNumber, Timestamp departureTime) {
+        lock.readLock().lock();
+        try {
+            List<String> booked = new ArrayList<>();
+            Map<String, SeatRow> seats = seatsOf(flightNumber, departureTime);
+            if (seats != null) {
+                for (SeatRow row : seats.values()) {
+                    if (row.booked) {
+                        booked.add(row.seatId);
+                    }
+                }
+            }
+            return booked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== Bookings ==========
+
+    @Override
+    public int createBooking(int passengerId, String flightId, Timestamp departureTime, String seatId,
+                             Timestamp bookingTime, double totalPrice, String bookingStatus, String paymentStatus) {
+        lock.writeLock().lock();
+        try {
+            return insertBooking(new BookingRecord(passengerId, flightId, departureTime, seatId, bookingTime,
+                totalPrice, bookingStatus, paymentStatus));
+        } catch (SQLException e) {
+            return -1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult createBookings(List<BookingRecord> bookings) {
+        BatchResult result = new BatchResult(bookings.size());
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < bookings.size(); i++) {
+                try {
+                    result.succeeded(i, insertBooking(bookings.get(i)));
+                } catch (SQLException e) {
+                    result.failed(i, e);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    // Caller holds the write lock
+    private int insertBooking(BookingRecord b) throws SQLException {
+        checkBooking(b.getFlightId(), b.getDepartureTime(), b.getSeatId(), b.getBookingTime(), b.getBookingStatus());
+        int id = nextBookingId++;
+        indexBooking(new BookingRecord(id, b.getPassengerId(), b.getFlightId(), b.getDepartureTime(), b.getSeatId(),
+            b.getBookingTime(), b.getTotalPrice(), b.getBookingStatus(), b.getPaymentStatus()));
+        bookingsByPassenger.computeIfAbsent(b.getPassengerId(), k -> new ArrayList<>()).add(id);
+        return id;
+    }
+
+    private static void checkBooking(String flightId, Timestamp departureTime, String seatId, Timestamp bookingTime,
+                                     String bookingStatus) throws SQLException {
+        notNull(flightId, "flightId");
+        notNull(departureTime, "departureTime");
+        notNull(seatId, "seatId");
+        notNull(bookingTime, "bookingTime");
+        notNull(bookingStatus, "bookingStatus");
+    }
+
+    private void indexBooking(BookingRecord record) {
+        bookingsById.put(record.getBookingId(), record);
+        bookingsByTime.add(record);
+        bookingsByFlight.computeIfAbsent(key(record.getFlightId()), k -> new TreeSet<>(NEWEST_FIRST)).add(record);
+    }
+
+    private void unindexBooking(BookingRecord record) {
+        bookingsByTime.remove(record);
+        NavigableSet<BookingRecord> forFlight = bookingsByFlight.get(key(record.getFlightId()));
+        if (forFlight != null) {
+            forFlight.remove(record);
+        }
+    }
+
+    @Override
+    public boolean updateBookingStatus(int bookingId, String newStatus) {
+        if (newStatus == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            BookingRecord old = bookingsById.get(bookingId);
+            if (old == null) {
+                return false;
+            }
+            unindexBooking(old);
+            indexBooking(new BookingRecord(old.getBookingId(), old.getPassengerId(), old.getFlightId(),
+                old.getDepartureTime(), old.getSeatId(), old.getBookingTime(), old.getTotalPrice(), newStatus, old.getPaymentStatus()));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean updatePaymentStatus(int bookingId, String newStatus) {
+        lock.writeLock().lock();
+        try {
+            BookingRecord old = bookingsById.get(bookingId);
+            if (old == null) {
+                return false;
+            }
+            unindexBooking(old);
+            indexBooking(new BookingRecord(old.getBookingId(), old.getPassengerId(), old.getFlightId(),
+                old.getDepartureTime(), old.getSeatId(), old.getBookingTime(), old.getTotalPrice(), old.getBookingStatus(), newStatus));
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Integer> getBookingsByUser(int userId) {
+        lock.readLock().lock();
+        try {
+            List<Integer> ids = bookingsByPassenger.get(userId);
+            return ids == null ? new ArrayList<>() : new ArrayList<>(ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public BookingPage getFirstBookingsPage(int pageSize, String flightId, String status) {
+        return bookingsPage(null, true, pageSize, flightId, status);
+    }
+
+    @Override
+    public BookingPage getNextBookingsPage(BookingPage.Cursor after, int pageSize, String flightId, String status) {
+        return bookingsPage(after, true, pageSize, flightId, status);
+    }
+
+    @Override
+    public BookingPage getPreviousBookingsPage(BookingPage.Cursor before, int pageSize, String flightId, String status) {
+        return bookingsPage(before, false, pageSize, flightId, status);
+    }
+
+    // Same contract as BookingDAO.fetchBookingsPage, seeking in the sorted index instead of SQL
+    private BookingPage bookingsPage(BookingPage.Cursor cursor, boolean forward, int pageSize,
+                                     String flightId, String status) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        boolean byFlight = flightId != null && !flightId.isEmpty();
+        boolean byStatus = status != null && !status.isEmpty();
+
+        List<BookingRecord> items = new ArrayList<>(pageSize + 1);
+        lock.readLock().lock();
+        try {
+            NavigableSet<BookingRecord> index = byFlight ? bookingsByFlight.get(key(flightId)) : bookingsByTime;
+            if (index != null) {
+                if (cursor != null) {
+                    BookingRecord probe = new BookingRecord(cursor.getBookingId(), 0, null, null, null,
+                        cursor.getBookingTime(), 0, null, null);
+                    index = forward ? index.tailSet(probe, false) : index.headSet(probe, false).descendingSet();
+                } else if (!forward) {
+                    index = index.descendingSet();
+                }
+                Iterator<BookingRecord> it = index.iterator();
+                while (it.hasNext() && items.size() <= pageSize) {
+                    BookingRecord b = it.next();
+                    if (!byStatus || key(status).equals(key(b.getBookingStatus()))) {
+                        items.add(b);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        boolean more = items.size() > pageSize;
+        if (more) {
+            items.remove(items.size() - 1);
+        }
+        if (forward) {
+            return new BookingPage(items, more, cursor != null);
+        }
+        Collections.reverse(items);
+        return new BookingPage(items, true, more);
+    }
+
+    @Override
+    public BookingTransaction.Result commitBooking(BookingTransaction tx) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            // Check every step first; the writes below cannot fail, so nothing needs rolling back
+            DatabaseManager.validateUser(tx.fullname, tx.dob, tx.nationality, tx.email);
+            Integer existingUser = returningUser(tx.email, DatabaseManager.blankToNull(tx.passportNumber));
+            if (existingUser == null) {
+                checkUserUnique(DatabaseManager.blankToNull(tx.passportNumber),
+                    DatabaseManager.blankToNull(tx.visaNumber), tx.email);
+            }
+            try {
+                checkSeatFree(tx.flightNumber, tx.departureTime, tx.seatId);
+            } catch (SQLException e) {
+                throw new SeatTakenException(tx.flightNumber, tx.seatId, e);
+            }
+            checkBooking(tx.flightNumber, tx.departureTime, tx.seatId, tx.bookingTime, tx.bookingStatus);
+            if (tx.hasPayment) {
+                checkPayment(tx.paymentMethod, tx.paymentDate);
+            }
+
+            int userId = existingUser != null ? existingUser
+                : insertUser(tx.fullname, tx.dob, tx.nationality, tx.passportNumber, tx.visaNumber, tx.email);
+            insertSeat(tx.flightNumber, tx.departureTime, tx.seatId);
+            int bookingId = insertBooking(new BookingRecord(userId, tx.flightNumber, tx.departureTime, tx.seatId, tx.bookingTime,
+                tx.totalPrice, tx.bookingStatus, tx.paymentStatus));
+            int paymentId = tx.hasPayment
+                ? insertPayment(new PaymentRecord(bookingId, tx.paymentAmount, tx.paymentMethod, tx.paymentDate))
+                : -1;
+            return new BookingTransaction.Result(userId, bookingId, paymentId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ========== Payments ==========
+
+    @Override
+    public boolean recordPayment(int bookingId, double amount, String paymentMethod, Timestamp paymentDate) {
+        lock.writeLock().lock();
+        try {
+            insertPayment(new PaymentRecord(bookingId, amount, paymentMethod, paymentDate));
+            return true;
+        } catch (SQLException e) {
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public BatchResult recordPayments(List<PaymentRecord> payments) {
+        BatchResult result = new BatchResult(payments.size());
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < payments.size(); i++) {
+                try {
+                    result.succeeded(i, insertPayment(payments.get(i)));
+                } catch (SQLException e) {
+                    result.failed(i, e);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return result;
+    }
+
+    // Caller holds the write lock
+    private int insertPayment(PaymentRecord payment) throws SQLException {
+        checkPayment(payment.getPaymentMethod(), payment.getPaymentDate());
+        int id = nextPaymentId++;
+        paymentsById.put(id, payment);
+        return id;
+    }
+
+    private static void checkPayment(String paymentMethod, Timestamp paymentDate) throws SQLException {
+        notNull(paymentMethod, "paymentMethod");
+        notNull(paymentDate, "paymentDate");
+    }
+
+    // ========== Reference data ==========
+
+    @Override
+    public int addAirline(Airline airline) {
+        if (airline.getCode() == null || airline.getName() == null) {
+            return -1;
+        }
+        lock.writeLock().lock();
+        try {
+            if (airlinesByCode.putIfAbsent(key(airline.getCode()), airline) != null) {
+                return -1;
+            }
+            return nextAirlineId++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Airline> listAirlines() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(airlinesByCode.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int addAirport(Airport airport) {
+        if (airport.getCode() == null || airport.getName() == null || airport.getCity() == null) {
+            return -1;
+        }
+        lock.writeLock().lock();
+        try {
+            if (airportsByCode.putIfAbsent(key(airport.getCode()), airport) != null) {
+                return -1;
+            }
+            return nextAirportId++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Airport> listAirports() {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(airportsByCode.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== Lifecycle ==========
+
+    @Override
+    public boolean isConnected() {
+        return !closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    // ========== Helpers ==========
+
+    // Number and departure, as uq_flight_departure; also the flight part of the seat key
+    private static String flightKey(String flightNumber, Timestamp departureTime) {
+        return key(flightNumber) + '/' + departureTime.toLocalDateTime();
+    }
+
+    // MySQL's default collation compares case-insensitively, so the unique keys do too
+    private static String key(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    private static void notNull(Object value, String column) throws SQLException {
+        if (value == null) {
+            throw new SQLException("Column '" + column + "' cannot be null", INTEGRITY_VIOLATION, ER_BAD_NULL);
+        }
+    }
+}
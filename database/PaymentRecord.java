@@ -0,0 +1,23 @@
+package database;
+
+import java.sql.Timestamp;
+
+/** One row of the payments table, as written by DatabaseManager.recordPayments. */
+public class PaymentRecord {
+    private final int bookingId;
+    private final double amount;
+    private final String paymentMethod;
+    private final Timestamp paymentDate;
+
+    public PaymentRecord(int bookingId, double amount, String paymentMethod, Timestamp paymentDate) {
+        this.bookingId = bookingId;
+        this.amount = amount;
+        this.paymentMethod = paymentMethod;
+        this.paymentDate = paymentDate;
+    }
+
+    public int getBookingId() { return bookingId; }
+    public double getAmount() { return amount; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public Timestamp getPaymentDate() { return paymentDate; }
+}
@@ -0,0 +1,267 @@
+package database;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies the versioned SQL scripts in database/migrations at startup.
+ *
+ * Scripts run in version order and each one is recorded in schema_version
+ * with a SHA-256 checksum once it has been applied. Already applied scripts
+ * are skipped, and a script whose checksum no longer matches what was
+ * applied stops startup instead of silently diverging. A named MySQL lock
+ * keeps two terminals that start at the same time from migrating twice.
+ *
+ * A unique key or NOT NULL column that existing rows already break (MySQL
+ * errors 1062 and 1138) does not stop startup: the offending statement and
+ * rows are reported, the rest of the script still runs, and the script is
+ * left unrecorded so it is retried at the next startup once the data has
+ * been cleaned up. Until then the schema version stays below
+ * {@link #getLatestVersion()}, and DatabaseManager refuses the writes that
+ * rely on those keys. Scripts are written so that running them again is
+ * harmless.
+ */
+public class SchemaMigrator {
+    // Add new scripts at the end; never edit or reorder one that has shipped
+    private static final String[] SCRIPTS = {
+        "V1__baseline_tables.sql",
+        "V2__lookup_indexes.sql",
+        "V3__seat_claim_rows.sql",
+        "V4__flight_instance_seats.sql",
+    };
+    private static final String LOCK_NAME = "traveller_class.schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    // MySQL "Duplicate column name" and "Duplicate key name": the column or index
+    // already exists, on a hand-made database or from an earlier incomplete run
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+    // MySQL "Can't DROP": an index that a script replaces is already gone
+    private static final int ER_CANT_DROP_FIELD_OR_KEY = 1091;
+    // MySQL "Duplicate entry": existing rows break a unique key being added
+    private static final int ER_DUP_ENTRY = 1062;
+    // MySQL "Invalid use of NULL value": existing rows break a column being made NOT NULL
+    private static final int ER_INVALID_USE_OF_NULL = 1138;
+
+    private final ConnectionPool pool;
+
+    public SchemaMigrator(ConnectionPool pool) {
+        this.pool = pool;
+    }
+
+    /** The version of the last script; a database is fully migrated when its version is this. */
+    public static int getLatestVersion() {
+        return versionOf(SCRIPTS[SCRIPTS.length - 1]);
+    }
+
+    /**
+     * Brings the schema up to the latest version.
+     *
+     * @return the schema version after migrating, as {@link #getCurrentVersion()}
+     */
+    public int migrate() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            acquireLock(connection);
+            try {
+                createHistoryTable(connection);
+                Map<Integer, String> applied = loadAppliedChecksums(connection);
+                for (String script : SCRIPTS) {
+                    int version = versionOf(script);
+                    String sql = readScript(script);
+                    String checksum = sha256(sql);
+                    String appliedChecksum = applied.get(version);
+                    if (appliedChecksum != null) {
+                        if (!appliedChecksum.equals(checksum)) {
+                            throw new SQLException("Migration " + script + " was modified after it was applied "
+                                    + "(expected checksum " + appliedChecksum + ", found " + checksum + ")");
+                        }
+                    } else {
+                        List<String> blocked = apply(connection, script, sql);
+                        if (blocked.isEmpty()) {
+                            record(connection, version, script, checksum);
+                            applied.put(version, checksum);
+                            System.out.println("Applied schema migration " + script);
+                        } else {
+                            reportBlocked(script, blocked);
+                        }
+                    }
+                }
+                return completeVersion(applied);
+            } finally {
+                releaseLock(connection);
+            }
+        }
+    }
+
+    // Returns the statements that existing rows kept from running, each with the rows MySQL reported
+    private List<String> apply(Connection connection, String script, String sql) throws SQLException {
+        List<String> blocked = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            for (String part : splitStatements(sql)) {
+                try {
+                    statement.execute(part);
+                } catch (SQLException e) {
+                    if (e.getErrorCode() == ER_DUP_FIELDNAME || e.getErrorCode() == ER_DUP_KEYNAME
+                            || e.getErrorCode() == ER_CANT_DROP_FIELD_OR_KEY) {
+                        continue;
+                    }
+                    if (e.getErrorCode() == ER_DUP_ENTRY || e.getErrorCode() == ER_INVALID_USE_OF_NULL) {
+                        blocked.add(part + "\n    " + e.getMessage());
+                        continue;
+                    }
+                    throw new SQLException("Migration " + script + " failed on: " + part, e.getSQLState(),
+                            e.getErrorCode(), e);
+                }
+            }
+        }
+        return blocked;
+    }
+
+    private static void reportBlocked(String script, List<String> blocked) {
+        System.err.println("Schema migration " + script + " is incomplete: existing rows break "
+                + blocked.size() + " key(s) or NOT NULL column(s)");
+        for (String statement : blocked) {
+            System.err.println("  " + statement);
+        }
+        System.err.println("Bookings are refused until the rows are fixed; " + script
+                + " is retried at the next startup.");
+    }
+
+    private void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version ("
+                    + "version INT NOT NULL PRIMARY KEY, "
+                    + "script VARCHAR(255) NOT NULL, "
+                    + "checksum CHAR(64) NOT NULL, "
+                    + "applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private Map<Integer, String> loadAppliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private void record(Connection connection, int version, String script, String checksum) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(
+                "INSERT INTO schema_version (version, script, checksum) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, version);
+            stmt.setString(2, script);
+            stmt.setString(3, checksum);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * The last version that has been applied along with every version before
+     * it, or 0 for a database that has never been migrated. A script left
+     * unapplied keeps the version below it even if later ones went through.
+     */
+    public int getCurrentVersion() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            createHistoryTable(connection);
+            return completeVersion(loadAppliedChecksums(connection));
+        }
+    }
+
+    private static int completeVersion(Map<Integer, String> applied) {
+        int current = 0;
+        for (String script : SCRIPTS) {
+            int version = versionOf(script);
+            if (!applied.containsKey(version)) {
+                break;
+            }
+            current = version;
+        }
+        return current;
+    }
+
+    private void acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for another process to finish migrating the schema");
+                }
+            }
+        }
+    }
+
+    private void releaseLock(Connection connection) {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            stmt.setString(1, LOCK_NAME);
+            stmt.executeQuery().close();
+        } catch (SQLException e) {
+            // The lock is released anyway when the session ends
+        }
+    }
+
+    static int versionOf(String script) {
+        int end = script.indexOf("__");
+        if (!script.startsWith("V") || end < 2) {
+            throw new IllegalArgumentException("Migration name must look like V<n>__description.sql: " + script);
+        }
+        return Integer.parseInt(script.substring(1, end));
+    }
+
+    private static String readScript(String script) throws SQLException {
+        try (InputStream in = SchemaMigrator.class.getResourceAsStream("migrations/" + script)) {
+            if (in == null) {
+                throw new SQLException("Migration script not found on the classpath: database/migrations/" + script);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new SQLException("Could not read migration " + script, e);
+        }
+    }
+
+    // Scripts are plain DDL: statements end with ';' and comments start with '--'
+    static List<String> splitStatements(String sql) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String line : sql.split("\r?\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            current.append(line).append('\n');
+            if (trimmed.endsWith(";")) {
+                String statement = current.toString().trim();
+                statements.add(statement.substring(0, statement.length() - 1));
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
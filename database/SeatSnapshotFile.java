@@ -0,0 +1,207 @@
+package database;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import model.SeatInventory;
+
+/**
+ * Seat bitmaps of many flights checkpointed to one memory-mapped file.
+ *
+ * Every flight instance (a key such as "KQ100" or "KQ100/2026-10-18T10:00") owns one
+ * fixed-size slot holding its SeatInventory words, so a checkpoint is a
+ * copy into the mapping and a restart is a map plus one short read per
+ * flight, rather than a scan of flight_seats. The OS writes dirty pages back
+ * on its own; {@link #force()} flushes them now.
+ *
+ * Layout: a 64-byte header, then {@code capacity} slots of {@value #SLOT_SIZE}
+ * bytes. A slot is its key, the layout's seat count and width, the time of
+ * the checkpoint, a CRC32C of the words and the words themselves. A slot
+ * torn by a crash fails its CRC and is skipped on restore. Keys are written
+ * last, so a half-claimed slot is simply empty.
+ */
+public class SeatSnapshotFile implements AutoCloseable {
+    private static final long MAGIC = 0x5452_5653_4541_5453L; // "TRVSEATS"
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int KEY_SIZE = 32;
+    /** Words per slot: up to 1024 seats at two bits each. */
+    public static final int MAX_WORDS = 32;
+    static final int SLOT_SIZE = 64 + MAX_WORDS * Long.BYTES;
+
+    // Slot field offsets
+    private static final int SEAT_COUNT = KEY_SIZE;
+    private static final int SEATS_PER_ROW = KEY_SIZE + 4;
+    private static final int SAVED_AT = KEY_SIZE + 8;
+    private static final int WORD_COUNT = KEY_SIZE + 16;
+    private static final int CHECKSUM = KEY_SIZE + 20;
+    private static final int WORDS = 64;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Map<String, Integer> slotsByKey = new HashMap<>();
+    private int used;
+
+    private SeatSnapshotFile(FileChannel channel, MappedByteBuffer buffer, int capacity) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Maps the file, creating it with room for {@code capacity} flights if it
+     * does not exist yet. An existing file keeps its own capacity.
+     */
+    public static SeatSnapshotFile open(Path path, int capacity) throws IOException {
+        if (capacity <= 0 || capacity > (Integer.MAX_VALUE - HEADER_SIZE) / SLOT_SIZE) {
+            throw new IllegalArgumentException("Capacity out of range: " + capacity);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            boolean fresh = channel.size() == 0;
+            if (!fresh) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                header.order(ByteOrder.LITTLE_ENDIAN);
+                if (header.getLong(0) != MAGIC || header.getInt(8) != FORMAT || header.getInt(12) != SLOT_SIZE) {
+                    throw new IOException(path + " is not a seat snapshot file");
+                }
+                capacity = header.getInt(16);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_SIZE + (long) capacity * SLOT_SIZE);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (fresh) {
+                buffer.putLong(0, MAGIC);
+                buffer.putInt(8, FORMAT);
+                buffer.putInt(12, SLOT_SIZE);
+                buffer.putInt(16, capacity);
+            }
+            SeatSnapshotFile file = new SeatSnapshotFile(channel, buffer, capacity);
+            file.indexSlots();
+            return file;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Keys only; the words are read when a flight is restored
+    private void indexSlots() {
+        byte[] key = new byte[KEY_SIZE - 1];
+        for (int slot = 0; slot < capacity; slot++) {
+            int base = offset(slot);
+            int length = buffer.get(base) & 0xFF;
+            if (length == 0) {
+                break; // slots are claimed in order
+            }
+            buffer.get(base + 1, key, 0, length);
+            slotsByKey.put(new String(key, 0, length, StandardCharsets.UTF_8), slot);
+            used = slot + 1;
+        }
+    }
+
+    /** Copies the flight's seats into its slot, claiming a new slot on first use. */
+    public synchronized void checkpoint(String flightKey, SeatInventory inventory) throws IOException {
+        byte[] key = flightKey.getBytes(StandardCharsets.UTF_8);
+        if (key.length == 0 || key.length >= KEY_SIZE) {
+            throw new IllegalArgumentException("Flight key must be 1.." + (KEY_SIZE - 1) + " bytes: " + flightKey);
+        }
+        if (inventory.wordCount() > MAX_WORDS) {
+            throw new IllegalArgumentException("Layout " + inventory.getLayout() + " is too large for a snapshot slot");
+        }
+        Integer slot = slotsByKey.get(flightKey);
+        boolean claim = slot == null;
+        if (claim) {
+            if (used == capacity) {
+                throw new IOException("Seat snapshot file is full (" + capacity + " flights)");
+            }
+            slot = used;
+        }
+        long[] words = inventory.toWords();
+        int base = offset(slot);
+        CRC32C crc = new CRC32C();
+        for (int i = 0; i < words.length; i++) {
+            buffer.putLong(base + WORDS + i * Long.BYTES, words[i]);
+        }
+        crc.update(buffer.slice(base + WORDS, words.length * Long.BYTES));
+        buffer.putInt(base + SEAT_COUNT, inventory.getLayout().getSeatCount());
+        buffer.putInt(base + SEATS_PER_ROW, inventory.getLayout().getSeatsPerRow());
+        buffer.putLong(base + SAVED_AT, System.currentTimeMillis());
+        buffer.putInt(base + WORD_COUNT, words.length);
+        buffer.putInt(base + CHECKSUM, (int) crc.getValue());
+        if (claim) {
+            buffer.put(base + 1, key);
+            buffer.put(base, (byte) key.length);
+            slotsByKey.put(flightKey, slot);
+            used++;
+        }
+    }
+
+    /**
+     * Loads the flight's last checkpoint into the inventory.
+     *
+     * @return false if the flight has no usable checkpoint (none, another
+     *         layout, or torn by a crash); the inventory is then unchanged
+     */
+    public synchronized boolean restore(String flightKey, SeatInventory inventory) {
+        Integer slot = slotsByKey.get(flightKey);
+        if (slot == null) {
+            return false;
+        }
+        int base = offset(slot);
+        int wordCount = buffer.getInt(base + WORD_COUNT);
+        if (buffer.getInt(base + SEAT_COUNT) != inventory.getLayout().getSeatCount()
+                || buffer.getInt(base + SEATS_PER_ROW) != inventory.getLayout().getSeatsPerRow()
+                || wordCount != inventory.wordCount()) {
+            return false;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(base + WORDS, wordCount * Long.BYTES));
+        if ((int) crc.getValue() != buffer.getInt(base + CHECKSUM)) {
+            return false;
+        }
+        long[] words = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = buffer.getLong(base + WORDS + i * Long.BYTES);
+        }
+        try {
+            inventory.restore(words);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false; // blocked seats changed since the checkpoint
+        }
+    }
+
+    public synchronized int size() {
+        return used;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** Writes dirty pages to disk now instead of when the OS gets to them. */
+    public synchronized void force() {
+        buffer.force();
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+}
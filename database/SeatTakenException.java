@@ -0,0 +1,23 @@
+package database;
+
+import java.sql.SQLException;
+
+/** Thrown when a seat claim loses to a booking that already holds the seat. */
+public class SeatTakenException extends SQLException {
+    private final String flightNumber;
+    private final String seatId;
+
+    public SeatTakenException(String flightNumber, String seatId, Throwable cause) {
+        super("Seat " + seatId + " on flight " + flightNumber + " is already booked", "23000", cause);
+        this.flightNumber = flightNumber;
+        this.seatId = seatId;
+    }
+
+    public String getFlightNumber() {
+        return flightNumber;
+    }
+
+    public String getSeatId() {
+        return seatId;
+    }
+}
@@ -0,0 +1,15 @@
+package database;
+
+import java.sql.SQLException;
+
+/** Carries an SQLException out of a Stream pipeline, where checked exceptions are not allowed. */
+public class UncheckedSQLException extends RuntimeException {
+    public UncheckedSQLException(SQLException cause) {
+        super(cause.getMessage(), cause);
+    }
+
+    @Override
+    public synchronized SQLException getCause() {
+        return (SQLException) super.getCause();
+    }
+}
@@ -0,0 +1,87 @@
+-- Tables used by DatabaseManager, BookingTransaction and the DAOs.
+-- IF NOT EXISTS so databases created by hand before migrations existed are adopted as-is.
+
+CREATE TABLE IF NOT EXISTS passports (
+    passport_number VARCHAR(32) NOT NULL PRIMARY KEY,
+    issue_date DATE NULL,
+    expiry_date DATE NULL,
+    issuing_country VARCHAR(64) NULL
+);
+
+CREATE TABLE IF NOT EXISTS visas (
+    visa_number VARCHAR(32) NOT NULL PRIMARY KEY,
+    visa_type VARCHAR(32) NULL,
+    issue_date DATE NULL,
+    expiry_date DATE NULL,
+    issuing_country VARCHAR(64) NULL
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    fullname VARCHAR(128) NOT NULL,
+    dob DATE NOT NULL,
+    nationality VARCHAR(64) NOT NULL,
+    passport_number VARCHAR(32) NULL,
+    visa_number VARCHAR(32) NULL,
+    email VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS aircraft (
+    registrationNumber VARCHAR(16) NOT NULL PRIMARY KEY,
+    model VARCHAR(64) NULL,
+    manufacturer VARCHAR(64) NULL,
+    seatingCapacity INT NULL,
+    maxTakeoffWeight DOUBLE NULL,
+    aircraft_range DOUBLE NULL,
+    yearOfManufacture INT NULL
+);
+
+CREATE TABLE IF NOT EXISTS flight (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    flightNumber VARCHAR(16) NOT NULL,
+    departureLocation VARCHAR(64) NOT NULL,
+    arrivalLocation VARCHAR(64) NOT NULL,
+    departureTime TIMESTAMP NULL,
+    arrivalTime TIMESTAMP NULL,
+    price DOUBLE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS flight_seats (
+    flight_number VARCHAR(16) NOT NULL,
+    seat_id VARCHAR(8) NOT NULL,
+    is_booked BOOLEAN NOT NULL DEFAULT TRUE
+);
+
+CREATE TABLE IF NOT EXISTS booking (
+    BookingId INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    passenger_id INT NOT NULL,
+    flightId VARCHAR(16) NOT NULL,
+    seatId VARCHAR(8) NOT NULL,
+    bookingTime TIMESTAMP NOT NULL,
+    totalPrice DOUBLE NOT NULL,
+    bookingStatus VARCHAR(32) NOT NULL,
+    paymentStatus VARCHAR(32) NULL
+);
+
+CREATE TABLE IF NOT EXISTS payments (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    bookingId INT NOT NULL,
+    amount DOUBLE NOT NULL,
+    paymentMethod VARCHAR(16) NOT NULL,
+    paymentDate TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS airlines (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(8) NOT NULL,
+    name VARCHAR(128) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS airports (
+    id INT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(8) NOT NULL,
+    name VARCHAR(128) NOT NULL,
+    city VARCHAR(64) NOT NULL,
+    country VARCHAR(64) NULL,
+    iata_code VARCHAR(3) NULL
+);
@@ -0,0 +1,30 @@
+-- Unique keys that registration and seat claims rely on, and the indexes behind
+-- the hot look-ups. Unique key names contain the column name on purpose:
+-- DatabaseManager.insertUser maps "Duplicate entry ... for key 'users.uq_users_email'"
+-- back to the offending field. One index per statement, so a database that already
+-- has some of them only skips those (see SchemaMigrator).
+
+ALTER TABLE users ADD UNIQUE KEY uq_users_email (email);
+ALTER TABLE users ADD UNIQUE KEY uq_users_passport_number (passport_number);
+ALTER TABLE users ADD UNIQUE KEY uq_users_visa_number (visa_number);
+
+-- One row per claimed seat; makes the INSERT in BookingTransaction the seat lock
+ALTER TABLE flight_seats ADD UNIQUE KEY uq_flight_seats_seat (flight_number, seat_id);
+ALTER TABLE flight_seats ADD KEY idx_flight_seats_booked (flight_number, is_booked, seat_id);
+
+-- A flight number repeats on every day it flies, so a flight is its number and
+-- departure. Stored flights always have a schedule: a NULL departure would let
+-- any number of rows share a number past the unique key.
+ALTER TABLE flight MODIFY departureTime TIMESTAMP NOT NULL, MODIFY arrivalTime TIMESTAMP NOT NULL;
+ALTER TABLE flight ADD UNIQUE KEY uq_flight_departure (flightNumber, departureTime);
+
+-- getBookingsByUser, and keyset paging in BookingDAO (newest first, optional filters)
+ALTER TABLE booking ADD KEY idx_booking_passenger (passenger_id);
+ALTER TABLE booking ADD KEY idx_booking_time (bookingTime, BookingId);
+ALTER TABLE booking ADD KEY idx_booking_flight_time (flightId, bookingTime, BookingId);
+ALTER TABLE booking ADD KEY idx_booking_status_time (bookingStatus, bookingTime, BookingId);
+
+ALTER TABLE payments ADD KEY idx_payments_booking (bookingId);
+
+ALTER TABLE airlines ADD UNIQUE KEY uq_airlines_code (code);
+ALTER TABLE airports ADD UNIQUE KEY uq_airports_code (code);
@@ -0,0 +1,5 @@
+-- A flight_seats row now means the seat is taken: claimSeat is a plain INSERT
+-- against uq_flight_seats_seat and releaseSeat deletes the row. Rows left with
+-- is_booked = false would block a claim on a free seat, so they go.
+
+DELETE FROM flight_seats WHERE is_booked = false;
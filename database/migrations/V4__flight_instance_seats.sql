@@ -0,0 +1,28 @@
+-- A seat belongs to one flight, not to a flight number: KQ100 today and KQ100
+-- tomorrow both have a 12C. Seat rows and bookings carry the departure of their
+-- flight, which with the number is the flight's key (uq_flight_departure), and
+-- the claim key includes it.
+
+ALTER TABLE flight_seats ADD COLUMN departure_time TIMESTAMP NULL AFTER flight_number;
+ALTER TABLE booking ADD COLUMN departureTime TIMESTAMP NULL AFTER flightId;
+
+-- Older rows only name the number. That is enough when the number has a single
+-- flight; rows of a number that flies more than once are left NULL and are
+-- reported by the NOT NULL below until someone assigns them a departure.
+UPDATE flight_seats s
+    JOIN (SELECT flightNumber, MIN(departureTime) AS departureTime FROM flight
+          GROUP BY flightNumber HAVING COUNT(*) = 1) f ON f.flightNumber = s.flight_number
+    SET s.departure_time = f.departureTime
+    WHERE s.departure_time IS NULL;
+UPDATE booking b
+    JOIN (SELECT flightNumber, MIN(departureTime) AS departureTime FROM flight
+          GROUP BY flightNumber HAVING COUNT(*) = 1) f ON f.flightNumber = b.flightId
+    SET b.departureTime = f.departureTime
+    WHERE b.departureTime IS NULL;
+
+ALTER TABLE flight_seats MODIFY departure_time TIMESTAMP NOT NULL;
+ALTER TABLE booking MODIFY departureTime TIMESTAMP NOT NULL;
+
+-- The new key goes in before the old one comes out, so claims are never unguarded
+ALTER TABLE flight_seats ADD UNIQUE KEY uq_flight_seats_instance_seat (flight_number, departure_time, seat_id);
+ALTER TABLE flight_seats DROP INDEX uq_flight_seats_seat;
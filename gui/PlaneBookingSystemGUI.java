@@ -4,14 +4,16 @@ package gui;
 import gui.panels.admin.AdminPanel;
 import gui.panels.admin.RoleSelectionPanel;
 import gui.panels.admin.UserPanel;
+import model.Airport;
+import model.AirportIndex;
 import model.Flight;
+import model.FlightCatalog;
 
 
 import java.awt.BorderLayout;
 import java.awt.CardLayout;
-import java.util.ArrayList;
-import java.util.List;
-
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import javax.swing.JFrame;
 import javax.swing.JPanel;
 import javax.swing.SwingUtilities;
@@ -21,7 +23,8 @@ public class PlaneBookingSystemGUI extends JFrame {
     private JPanel mainPanel = new JPanel(cardLayout);
 
     // Centralized data (can be passed to panels or managed by a controller)
-    private List<Flight> flights = new ArrayList<>();
+    private FlightCatalog flights = new FlightCatalog();
+    private AirportIndex airports = new AirportIndex();
 
     public PlaneBookingSystemGUI() {
         setTitle("Plane Booking System");
@@ -35,19 +38,25 @@ public class PlaneBookingSystemGUI extends JFrame {
     }
 
     private void initializeDummyData() {
-        flights.add(new Flight("KQ101", "Nairobi", "London", 8500));
-        flights.add(new Flight("KQ202", "Nairobi", "Paris", 7000));
-        flights.add(new Flight("KQ303", "Nairobi", "Dubai", 7500));
+        airports.add(new Airport("HKJK", "Jomo Kenyatta International", "Nairobi", "Kenya", "NBO"));
+        airports.add(new Airport("EGLL", "Heathrow", "London", "United Kingdom", "LHR"));
+        airports.add(new Airport("LFPG", "Charles de Gaulle", "Paris", "France", "CDG"));
+        airports.add(new Airport("OMDB", "Dubai International", "Dubai", "United Arab Emirates", "DXB"));
+
+        LocalDateTime today = LocalDate.now().atStartOfDay();
+        flights.add(new Flight("KQ101", "Nairobi", "London", 8500, today.plusHours(23), today.plusHours(32).plusMinutes(30)));
+        flights.add(new Flight("KQ202", "Nairobi", "Paris", 7000, today.plusHours(23).plusMinutes(45), today.plusHours(32)));
+        flights.add(new Flight("KQ303", "Nairobi", "Dubai", 7500, today.plusHours(10), today.plusHours(15)));
 
-        flights.get(0).bookSeat("1A");
-        flights.get(0).bookSeat("1B");
+        flights.getFlightByNumber("KQ101").bookSeat("1A");
+        flights.getFlightByNumber("KQ101").bookSeat("1B");
     }
 
     private void setupMainPanels() {
         // Pass references to the main panel and card layout for switching
         RoleSelectionPanel roleSelectionPanel = new RoleSelectionPanel(mainPanel, cardLayout);
-        UserPanel userPanel = new UserPanel(mainPanel, cardLayout, flights);
-        AdminPanel adminPanel = new AdminPanel(mainPanel, cardLayout, flights); // Pass flights list
+        UserPanel userPanel = new UserPanel(mainPanel, cardLayout, flights, airports);
+        AdminPanel adminPanel = new AdminPanel(mainPanel, cardLayout, flights, airports); // Pass flights list
 
         mainPanel.add(roleSelectionPanel, "ROLE_SELECTION");
         mainPanel.add(userPanel, "USER_PANEL");
@@ -0,0 +1,130 @@
+package gui.components;
+
+import model.Airport;
+import model.AirportIndex;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+
+/**
+ * Suggests airports under a text field as the user types. Picking one fills
+ * in its city, the place name flights are listed under.
+ */
+public class AirportTypeAhead {
+    private static final int SUGGESTIONS = 8;
+
+    private final JTextField field;
+    private final AirportIndex airports;
+    private final DefaultListModel<Airport> suggestions = new DefaultListModel<>();
+    private final JList<Airport> list = new JList<>(suggestions);
+    private final JPopupMenu popup = new JPopupMenu();
+    private boolean filling = false; // the field is being set from a suggestion, not typed
+
+    private AirportTypeAhead(JTextField field, AirportIndex airports) {
+        this.field = field;
+        this.airports = airports;
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+        popup.setFocusable(false);
+        popup.add(new JScrollPane(list));
+    }
+
+    public static AirportTypeAhead attach(JTextField field, AirportIndex airports) {
+        AirportTypeAhead typeAhead = new AirportTypeAhead(field, airports);
+        typeAhead.install();
+        return typeAhead;
+    }
+
+    private void install() {
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) { suggest(); }
+            @Override
+            public void removeUpdate(DocumentEvent e) { suggest(); }
+            @Override
+            public void changedUpdate(DocumentEvent e) { }
+        });
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN -> move(1, e);
+                    case KeyEvent.VK_UP -> move(-1, e);
+                    case KeyEvent.VK_ENTER -> {
+                        if (list.getSelectedIndex() >= 0) {
+                            choose(list.getSelectedValue());
+                            e.consume();
+                        }
+                    }
+                    case KeyEvent.VK_ESCAPE -> popup.setVisible(false);
+                    default -> { }
+                }
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    choose(suggestions.get(index));
+                }
+            }
+        });
+    }
+
+    // Runs inside the document notification, so the popup is shown afterwards
+    private void suggest() {
+        if (filling) {
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            List<Airport> matches = airports.search(field.getText(), SUGGESTIONS);
+            suggestions.clear();
+            matches.forEach(suggestions::addElement);
+            if (matches.isEmpty() || !field.isShowing()) {
+                popup.setVisible(false);
+                return;
+            }
+            list.setVisibleRowCount(matches.size());
+            popup.pack();
+            popup.show(field, 0, field.getHeight());
+        });
+    }
+
+    private void move(int step, KeyEvent e) {
+        int current = list.getSelectedIndex();
+        int index = current < 0
+                ? (step > 0 ? 0 : suggestions.size() - 1)
+                : Math.floorMod(current + step, suggestions.size());
+        list.setSelectedIndex(index);
+        list.ensureIndexIsVisible(index);
+        e.consume();
+    }
+
+    private void choose(Airport airport) {
+        filling = true;
+        try {
+            field.setText(airport.getCity());
+        } finally {
+            filling = false;
+        }
+        popup.setVisible(false);
+    }
+}
@@ -1,29 +1,39 @@
 package gui.components;
 
+import model.CabinLayout;
+import model.SeatInventory;
+
 import javax.swing.*;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
-import java.util.HashSet;
-import java.util.Set;
 
 public class SeatMapCellRenderer extends JLabel implements TableCellRenderer {
-    private Set<String> bookedSeats = new HashSet<>();
+    private SeatInventory inventory;
 
-    public void setBookedSeats(Set<String> bookedSeats) {
-        this.bookedSeats = bookedSeats != null ? bookedSeats : new HashSet<>();
+    // Cells are looked up by ordinal in the inventory's layout, so painting never parses a seat ID
+    public void setInventory(SeatInventory inventory) {
+        this.inventory = inventory;
     }
 
     @Override
     public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
         setText(value == null ? "" : value.toString());
-        String seatId = value == null ? "" : value.toString();
+        CabinLayout layout = inventory == null ? null : inventory.getLayout();
+        int ordinal = layout == null || row >= layout.getRows() || column >= layout.getColumnCount()
+                ? -1 : layout.ordinalAt(row, column);
 
-        if (seatId.isEmpty()) { // Aisle
+        if (value == null || value.toString().isEmpty()) { // Aisle
             setBackground(Color.LIGHT_GRAY);
             setForeground(Color.LIGHT_GRAY); // Make text invisible on aisle
-        } else if (bookedSeats.contains(seatId)) {
+        } else if (ordinal >= 0 && inventory.isBlocked(ordinal)) { // Never sold
+            setBackground(Color.LIGHT_GRAY);
+            setForeground(Color.DARK_GRAY);
+        } else if (ordinal >= 0 && inventory.isBooked(ordinal)) {
             setBackground(Color.RED);
             setForeground(Color.WHITE);
+        } else if (ordinal >= 0 && inventory.isHeld(ordinal)) { // Payment in progress
+            setBackground(Color.ORANGE);
+            setForeground(Color.BLACK);
         } else if (isSelected) {
             setBackground(Color.BLUE);
             setForeground(Color.WHITE);
@@ -35,4 +45,4 @@ public class SeatMapCellRenderer extends JLabel implements TableCellRenderer {
         setHorizontalAlignment(CENTER);
         return this;
     }
-}
\ No newline at end of file
+}
@@ -2,8 +2,8 @@ package gui.panels.admin;
 
 
 import model.Airline;
-import model.Airport;
-import model.Flight;
+import model.AirportIndex;
+import model.FlightCatalog;
 
 import javax.swing.*;
 import java.awt.*;
@@ -12,13 +12,12 @@ import java.util.List;
 
 public class AdminPanel extends JPanel {
     private List<Airline> airlines = new ArrayList<>(); // Admin-specific data
-    private List<Airport> airports = new ArrayList<>(); // Admin-specific data
 
     // References to the flight management panel to allow updates
     private FlightManagementPanel flightManagementPanel;
     private UserPanel userPanel; // We need a way to tell UserPanel to refresh its flight table
 
-    public AdminPanel(JPanel mainPanel, CardLayout cardLayout, List<Flight> flights) {
+    public AdminPanel(JPanel mainPanel, CardLayout cardLayout, FlightCatalog flights, AirportIndex airports) {
         // To allow AdminPanel to tell UserPanel to refresh its data
         for (Component comp : mainPanel.getComponents()) {
             if (comp instanceof UserPanel) {
@@ -33,10 +32,10 @@ public class AdminPanel extends JPanel {
         adminTabs.addTab("Airlines", new AirlineManagementPanel(airlines));
         adminTabs.addTab("Airports", new AirportManagementPanel(airports));
         
-        flightManagementPanel = new FlightManagementPanel(flights, this::updateUserFlightTableOnFlightChange);
+        flightManagementPanel = new FlightManagementPanel(flights, airports, this::updateUserFlightTableOnFlightChange);
         adminTabs.addTab("Flights", flightManagementPanel);
         
-        adminTabs.addTab("Bookings", new BookingManagementPanel());
+        adminTabs.addTab("Bookings", new BookingManagementPanel(flights));
 
         add(adminTabs, BorderLayout.CENTER);
 
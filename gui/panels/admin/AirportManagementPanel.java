@@ -2,16 +2,16 @@ package gui.panels.admin;
 
 
 import model.Airport;
+import model.AirportIndex;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.List;
 
 public class AirportManagementPanel extends JPanel {
     private DefaultTableModel airportTableModel;
     private JTable airportTable;
-    public AirportManagementPanel(List<Airport> airports) {
+    public AirportManagementPanel(AirportIndex airports) {
         setLayout(new BorderLayout());
 
         airportTableModel = new DefaultTableModel(new Object[]{"Code", "Name", "City", "Country", "IATA Code"}, 0);
@@ -19,6 +19,9 @@ public class AirportManagementPanel extends JPanel {
         airportTable.getTableHeader().setResizingAllowed(false);
         airportTable.getTableHeader().setReorderingAllowed(false);
         add(new JScrollPane(airportTable), BorderLayout.CENTER);
+        for (Airport a : airports.getAirports()) {
+            airportTableModel.addRow(new Object[]{a.getCode(), a.getName(), a.getCity(), a.getCountry(), a.getIataCode()});
+        }
 
         JPanel form = new JPanel(new FlowLayout());
         JTextField codeField = new JTextField(5);
@@ -46,8 +49,7 @@ public class AirportManagementPanel extends JPanel {
             String iata = iataField.getText().trim();
             if (!(code.isEmpty() || name.isEmpty() || city.isEmpty() || country.isEmpty() || iata.isEmpty())) {
                 Airport newAirport = new Airport(code, name, city, country, iata);
-                if (!airports.contains(newAirport)) {
-                    airports.add(newAirport);
+                if (airports.add(newAirport)) {
                     airportTableModel.addRow(new Object[]{code, name, city, country, iata});
                     codeField.setText(""); nameField.setText(""); cityField.setText(""); countryField.setText(""); iataField.setText("");
                 } else {
@@ -62,7 +64,7 @@ public class AirportManagementPanel extends JPanel {
             int selectedRow = airportTable.getSelectedRow();
             if (selectedRow >= 0) {
                 String codeToRemove = (String) airportTableModel.getValueAt(selectedRow, 0);
-                airports.removeIf(a -> a.getCode().equals(codeToRemove));
+                airports.remove(codeToRemove);
                 airportTableModel.removeRow(selectedRow);
             } else {
                 JOptionPane.showMessageDialog(this, "Select an airport to remove.", "No Selection", JOptionPane.WARNING_MESSAGE);
@@ -1,21 +1,73 @@
 package gui.panels.admin;
 
 
+import database.BookingDAO;
+import database.BookingPage;
+import database.BookingRecord;
+import model.Flight;
+import model.FlightCatalog;
+
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.sql.Timestamp;
 
 public class BookingManagementPanel extends JPanel {
+    private static final int PAGE_SIZE = 50;
+
     private DefaultTableModel bookingTableModel;
     private JTable bookingTable;
+    private final BookingDAO bookingDAO;
+    private final FlightCatalog flights;
+
+    // Keyset paging state: rows are appended page by page as the table is scrolled
+    private BookingPage.Cursor nextCursor;
+    private boolean hasMore = true;
+    private boolean loading = false;
+    private int generation = 0; // bumped on reload so late pages from an old filter are dropped
+    private String flightFilter;
+    private String statusFilter;
+
+    public BookingManagementPanel(FlightCatalog flights) {
+        this(new BookingDAO(), flights);
+    }
 
-    public BookingManagementPanel() {
+    public BookingManagementPanel(BookingDAO bookingDAO, FlightCatalog flights) {
+        this.bookingDAO = bookingDAO;
+        this.flights = flights;
         setLayout(new BorderLayout());
-        bookingTableModel = new DefaultTableModel(new Object[]{"Booking ID", "User", "Flight", "Seat", "Time", "Price", "Status"}, 0);
+        bookingTableModel = new DefaultTableModel(new Object[]{"Booking ID", "User", "Flight", "Seat", "Time", "Price", "Status"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
         bookingTable = new JTable(bookingTableModel);
         bookingTable.getTableHeader().setResizingAllowed(false);
         bookingTable.getTableHeader().setReorderingAllowed(false);
-        add(new JScrollPane(bookingTable), BorderLayout.CENTER);
+        JScrollPane scrollPane = new JScrollPane(bookingTable);
+        add(scrollPane, BorderLayout.CENTER);
+
+        // Fetch the next page when the user scrolls close to the bottom
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = (JScrollBar) e.getAdjustable();
+            if (!e.getValueIsAdjusting() && bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - bookingTable.getRowHeight() * 5) {
+                loadNextPage();
+            }
+        });
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        JTextField flightField = new JTextField(8);
+        JTextField statusField = new JTextField(10);
+        JButton applyFilterBtn = new JButton("Apply Filter");
+        filterPanel.add(new JLabel("Flight:")); filterPanel.add(flightField);
+        filterPanel.add(new JLabel("Status:")); filterPanel.add(statusField);
+        filterPanel.add(applyFilterBtn);
+        add(filterPanel, BorderLayout.NORTH);
+
+        applyFilterBtn.addActionListener(_ -> {
+            flightFilter = flightField.getText().trim();
+            statusFilter = statusField.getText().trim();
+            reload();
+        });
 
         JPanel btnPanel = new JPanel();
         JButton createBookingBtn = new JButton("Create Booking");
@@ -39,12 +91,100 @@ public class BookingManagementPanel extends JPanel {
             if (selectedRow >= 0) {
                 int confirm = JOptionPane.showConfirmDialog(this, "Cancel this booking?", "Confirm", JOptionPane.YES_NO_OPTION);
                 if (confirm == JOptionPane.YES_OPTION) {
-                    bookingTableModel.removeRow(selectedRow);
-                    // Add logic to actually cancel the booking in your data model
+                    cancelBooking((Integer) bookingTableModel.getValueAt(selectedRow, 0));
                 }
             } else {
                 JOptionPane.showMessageDialog(this, "Select a booking to cancel.");
             }
         });
+
+        reload();
+    }
+
+    // Cancels in the database off the EDT, then frees the seat in memory; the seat goes back
+    // on sale rather than to the waitlist, whose passengers have no booking row to take it over
+    private void cancelBooking(int bookingId) {
+        new SwingWorker<BookingRecord, Void>() {
+            @Override
+            protected BookingRecord doInBackground() {
+                return bookingDAO.cancelBooking(bookingId);
+            }
+
+            @Override
+            protected void done() {
+                BookingRecord cancelled;
+                try {
+                    cancelled = get();
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                    cancelled = null;
+                }
+                if (cancelled == null) {
+                    JOptionPane.showMessageDialog(BookingManagementPanel.this, "Booking " + bookingId + " could not be cancelled.",
+                            "Cancel Failed", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                Timestamp departure = cancelled.getDepartureTime();
+                Flight flight = departure == null ? null
+                        : flights.getFlight(cancelled.getFlightId(), departure.toLocalDateTime());
+                if (flight != null) {
+                    flight.releaseSeat(cancelled.getSeatId());
+                }
+                for (int row = 0; row < bookingTableModel.getRowCount(); row++) {
+                    if (Integer.valueOf(bookingId).equals(bookingTableModel.getValueAt(row, 0))) {
+                        bookingTableModel.setValueAt(BookingDAO.CANCELLED, row, 6);
+                    }
+                }
+            }
+        }.execute();
+    }
+
+    // Drops the loaded rows and starts again from the newest booking
+    private void reload() {
+        generation++;
+        bookingTableModel.setRowCount(0);
+        nextCursor = null;
+        hasMore = true;
+        loading = false;
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (loading || !hasMore) {
+            return;
+        }
+        loading = true;
+        final BookingPage.Cursor cursor = nextCursor;
+        final String flight = flightFilter;
+        final String status = statusFilter;
+        final int requestGeneration = generation;
+        new SwingWorker<BookingPage, Void>() {
+            @Override
+            protected BookingPage doInBackground() {
+                return cursor == null
+                        ? bookingDAO.getFirstBookingsPage(PAGE_SIZE, flight, status)
+                        : bookingDAO.getNextBookingsPage(cursor, PAGE_SIZE, flight, status);
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != generation) {
+                    return;
+                }
+                loading = false;
+                try {
+                    BookingPage page = get();
+                    for (BookingRecord b : page.getItems()) {
+                        bookingTableModel.addRow(new Object[]{b.getBookingId(), b.getPassengerId(), b.getFlightId(),
+                                b.getSeatId(), b.getBookingTime(), b.getTotalPrice(), b.getBookingStatus()});
+                    }
+                    nextCursor = page.getNextCursor();
+                    hasMore = page.hasNext();
+                } catch (Exception ex) {
+                    hasMore = false;
+                    ex.printStackTrace();
+                }
+            }
+        }.execute();
     }
-}
\ No newline at end of file
+}
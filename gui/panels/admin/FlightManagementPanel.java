@@ -1,22 +1,34 @@
 package gui.panels.admin;
 
 
+import gui.components.AirportTypeAhead;
+import model.AirportIndex;
 import model.Flight;
+import model.FlightCatalog;
 
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 public class FlightManagementPanel extends JPanel {
+    // Schedule times as typed and shown, here and in the user panel
+    static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final String[] VIEWS = {"All flights", "Departing in the next 24 hours", "Arriving in the next hour"};
+
     private DefaultTableModel adminFlightTableModel;
+    private List<Flight> shownFlights = List.of(); // the flight of each table row
+    private JComboBox<String> viewBox;
     private JTable adminFlightTable;
-    private List<Flight> flights;
-    public FlightManagementPanel(List<Flight> flights, Runnable flightUpdateCallback) {
+    private FlightCatalog flights;
+    public FlightManagementPanel(FlightCatalog flights, AirportIndex airports, Runnable flightUpdateCallback) {
         this.flights = flights;
         setLayout(new BorderLayout());
 
-        adminFlightTableModel = new DefaultTableModel(new Object[]{"Flight No", "From", "To", "Price"}, 0) {
+        adminFlightTableModel = new DefaultTableModel(new Object[]{"Flight No", "From", "To", "Departs", "Arrives", "Price"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) { return false; }
         };
@@ -25,17 +37,31 @@ public class FlightManagementPanel extends JPanel {
         adminFlightTable.getTableHeader().setReorderingAllowed(false);
         add(new JScrollPane(adminFlightTable), BorderLayout.CENTER);
 
+        JPanel viewPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        viewBox = new JComboBox<>(VIEWS);
+        viewBox.addActionListener(_ -> updateAdminFlightTable());
+        viewPanel.add(new JLabel("Show:")); viewPanel.add(viewBox);
+        add(viewPanel, BorderLayout.NORTH);
+
         JPanel form = new JPanel(new FlowLayout());
         JTextField flightNoField = new JTextField(8);
         JTextField departureField = new JTextField(10);
         JTextField arrivalField = new JTextField(10);
+        JTextField departsField = new JTextField(11);
+        JTextField arrivesField = new JTextField(11);
         JTextField priceField = new JTextField(8);
+        departsField.setToolTipText("yyyy-MM-dd HH:mm, or blank if not scheduled");
+        arrivesField.setToolTipText("yyyy-MM-dd HH:mm, or blank if not scheduled");
+        AirportTypeAhead.attach(departureField, airports);
+        AirportTypeAhead.attach(arrivalField, airports);
         JButton addBtn = new JButton("Add Flight");
         JButton removeBtn = new JButton("Remove Selected Flight");
 
         form.add(new JLabel("Flight No:")); form.add(flightNoField);
         form.add(new JLabel("From:")); form.add(departureField);
         form.add(new JLabel("To:")); form.add(arrivalField);
+        form.add(new JLabel("Departs:")); form.add(departsField);
+        form.add(new JLabel("Arrives:")); form.add(arrivesField);
         form.add(new JLabel("Price:")); form.add(priceField);
         form.add(addBtn);
         form.add(removeBtn);
@@ -48,24 +74,43 @@ public class FlightManagementPanel extends JPanel {
             String departure = departureField.getText().trim();
             String arrival = arrivalField.getText().trim();
             String priceStr = priceField.getText().trim();
+            String departsStr = departsField.getText().trim();
+            String arrivesStr = arrivesField.getText().trim();
 
             if (flightNo.isEmpty() || departure.isEmpty() || arrival.isEmpty() || priceStr.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Please fill in all flight details.", "Input Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
+            if (departsStr.isEmpty() != arrivesStr.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Enter both departure and arrival times, or neither.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            LocalDateTime departs, arrives;
+            try {
+                departs = departsStr.isEmpty() ? null : LocalDateTime.parse(departsStr, TIME_FORMAT);
+                arrives = arrivesStr.isEmpty() ? null : LocalDateTime.parse(arrivesStr, TIME_FORMAT);
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(this, "Invalid time. Please use yyyy-MM-dd HH:mm.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            if (departs != null && arrives.isBefore(departs)) {
+                JOptionPane.showMessageDialog(this, "The flight cannot arrive before it departs.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+
             try {
                 double price = Double.parseDouble(priceStr);
-                Flight newFlight = new Flight(flightNo, departure, arrival, price);
-                if (!flights.contains(newFlight)) {
-                    flights.add(newFlight);
+                Flight newFlight = new Flight(flightNo, departure, arrival, price, departs, arrives);
+                if (flights.add(newFlight)) {
                     updateAdminFlightTable();
                     if (flightUpdateCallback != null) {
                         flightUpdateCallback.run(); // Notify main GUI or UserPanel to update
                     }
                     flightNoField.setText(""); departureField.setText(""); arrivalField.setText(""); priceField.setText("");
+                    departsField.setText(""); arrivesField.setText("");
                 } else {
-                    JOptionPane.showMessageDialog(this, "Flight with this number already exists.", "Duplicate Flight", JOptionPane.WARNING_MESSAGE);
+                    JOptionPane.showMessageDialog(this, "A flight with this number already departs at that time.", "Duplicate Flight", JOptionPane.WARNING_MESSAGE);
                 }
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "Invalid price format. Please enter a number.", "Input Error", JOptionPane.ERROR_MESSAGE);
@@ -75,8 +120,8 @@ public class FlightManagementPanel extends JPanel {
         removeBtn.addActionListener(_ -> {
             int selectedRow = adminFlightTable.getSelectedRow();
             if (selectedRow >= 0) {
-                String flightNoToRemove = (String) adminFlightTableModel.getValueAt(selectedRow, 0);
-                flights.removeIf(f -> f.getFlightNumber().equals(flightNoToRemove));
+                Flight flightToRemove = shownFlights.get(selectedRow);
+                flights.remove(flightToRemove.getFlightNumber(), flightToRemove.getDepartureTime());
                 updateAdminFlightTable();
                 if (flightUpdateCallback != null) {
                     flightUpdateCallback.run(); // Notify main GUI or UserPanel to update
@@ -87,10 +132,23 @@ public class FlightManagementPanel extends JPanel {
         });
     }
 
+    // The time views read the catalog's schedule index, so they cost only the flights shown
     private void updateAdminFlightTable() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Flight> shown = switch (viewBox.getSelectedIndex()) {
+            case 1 -> flights.departingBetween(null, now, now.plusHours(24));
+            case 2 -> flights.arrivingBetween(null, now, now.plusHours(1));
+            default -> flights.getAvailableFlights();
+        };
+        shownFlights = shown;
         adminFlightTableModel.setRowCount(0); // Clear existing data
-        for (Flight f : flights) {
-            adminFlightTableModel.addRow(new Object[]{f.getFlightNumber(), f.getDepartureLocation(), f.getArrivalLocation(), f.getPrice()});
+        for (Flight f : shown) {
+            adminFlightTableModel.addRow(new Object[]{f.getFlightNumber(), f.getDepartureLocation(), f.getArrivalLocation(),
+                    formatTime(f.getDepartureTime()), formatTime(f.getArrivalTime()), f.getPrice()});
         }
     }
+
+    static String formatTime(LocalDateTime time) {
+        return time == null ? "" : time.format(TIME_FORMAT);
+    }
 }
\ No newline at end of file
@@ -1,9 +1,19 @@
 package gui.panels.admin;
 
 
+import gui.components.AirportTypeAhead;
 import gui.components.SeatMapCellRenderer;
 import gui.dialogs.PaymentDialog;
+import model.AirportIndex;
+import model.CabinLayout;
+import model.ConnectionSearch;
 import model.Flight;
+import model.FlightCatalog;
+import model.FlightSearch;
+import model.SeatChangeLog;
+import model.SeatHoldManager;
+import model.SeatInventory;
+import model.Waitlist;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
@@ -11,27 +21,53 @@ import javax.swing.event.ListSelectionListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableColumn;
 import java.awt.*;
-import java.util.HashSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public class UserPanel extends JPanel {
     private JPanel mainPanel;
     private CardLayout cardLayout;
-    private List<Flight> flights;
+    private FlightCatalog flights;
+    private AirportIndex airports;
 
     private JTextField userNameField, userEmailField, userPhoneField, selectedSeatField;
     private JTable flightTable, seatMapTable;
     private DefaultTableModel flightTableModel, seatMapTableModel;
+    private List<Flight> shownFlights = List.of(); // the flight of each row of flightTable
     private SeatMapCellRenderer seatMapRenderer;
+    private JScrollPane seatMapScrollPane;
+    private CabinLayout seatLayout; // Cabin currently shown in the seat map
     private Flight currentlySelectedFlight;
 
     private JTextField passportNumberField, nationalityField, visaNumberField, visaCountryField, baggageWeightField;
     private JButton bookAndPayButton;
 
-    public UserPanel(JPanel mainPanel, CardLayout cardLayout, List<Flight> flights) {
+    // Holds the seat chosen in this panel until the booking is paid or abandoned
+    private static final Duration SEAT_HOLD_TTL = Duration.ofMinutes(5);
+    private final SeatHoldManager seatHolds = new SeatHoldManager();
+
+    // seatMapTable is patched from the flight's SeatChangeLog after this version
+    private static final int SEAT_MAP_REFRESH_MILLIS = 500;
+    private long seatMapVersion = 0;
+
+    // Built on first use and dropped whenever the flights change
+    private static final int CONNECTIONS_SHOWN = 5;
+    private ConnectionSearch connectionSearch;
+
+    // Searches show the best few flights as they are found, not the whole catalog
+    private static final int TOP_FLIGHTS = 20;
+    private JTextField searchFromField;
+    private JComboBox<FlightSearch.SortBy> sortByBox;
+    private JComboBox<String> whenBox;
+    private static final String[] WHEN = {"Any time", "Next 24 hours", "Next 7 days"};
+    private int searchGeneration = 0; // bumped per search so results of an older one are dropped
+
+    public UserPanel(JPanel mainPanel, CardLayout cardLayout, FlightCatalog flights, AirportIndex airports) {
         this.mainPanel = mainPanel;
         this.cardLayout = cardLayout;
         this.flights = flights; // Reference to the shared flights list
+        this.airports = airports;
 
         setLayout(new BorderLayout());
 
@@ -41,6 +77,9 @@ public class UserPanel extends JPanel {
         setupControlPanel();
 
         updateUserFlightTable(); // Initial population
+        seatHolds.addExpiryListener(hold -> SwingUtilities.invokeLater(this::refreshSeatMap));
+        // Picks up seats changed elsewhere; a poll with no changes costs one read
+        new Timer(SEAT_MAP_REFRESH_MILLIS, e -> refreshSeatMap()).start();
     }
 
     private void setupUserFormPanel() {
@@ -74,7 +113,7 @@ public class UserPanel extends JPanel {
     }
 
     private void setupFlightTable() {
-        flightTableModel = new DefaultTableModel(new Object[]{"Flight No", "From", "To", "Price"}, 0) {
+        flightTableModel = new DefaultTableModel(new Object[]{"Flight No", "From", "To", "Departs", "Price"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) { return false; }
         };
@@ -82,23 +121,85 @@ public class UserPanel extends JPanel {
         flightTable.getTableHeader().setResizingAllowed(false); // Fix 1: Prevent column resizing
         flightTable.getTableHeader().setReorderingAllowed(false);
         flightTable.getSelectionModel().addListSelectionListener(new FlightSelectionListener());
-        add(new JScrollPane(flightTable), BorderLayout.CENTER);
+
+        JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        searchFromField = new JTextField(12);
+        AirportTypeAhead.attach(searchFromField, airports);
+        sortByBox = new JComboBox<>(FlightSearch.SortBy.values());
+        whenBox = new JComboBox<>(WHEN);
+        JButton searchButton = new JButton("Search");
+        JButton showAllButton = new JButton("Show All");
+        searchPanel.add(new JLabel("From:")); searchPanel.add(searchFromField);
+        searchPanel.add(new JLabel("When:")); searchPanel.add(whenBox);
+        searchPanel.add(new JLabel("Sort by:")); searchPanel.add(sortByBox);
+        searchPanel.add(searchButton);
+        searchPanel.add(showAllButton);
+        searchButton.addActionListener(e -> searchFlights());
+        searchFromField.addActionListener(e -> searchFlights());
+        showAllButton.addActionListener(e -> updateUserFlightTable());
+
+        JPanel flightPanel = new JPanel(new BorderLayout());
+        flightPanel.add(searchPanel, BorderLayout.NORTH);
+        flightPanel.add(new JScrollPane(flightTable), BorderLayout.CENTER);
+        add(flightPanel, BorderLayout.CENTER);
     }
 
-   // Inside gui/panels/UserPanel.java
+    // Best flights from the chosen place; the table fills in while the catalog is scanned.
+    // A time window scans only the flights the schedule index has in it.
+    private void searchFlights() {
+        String from = searchFromField.getText().trim();
+        FlightSearch.SortBy sortBy = (FlightSearch.SortBy) sortByBox.getSelectedItem();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = switch (whenBox.getSelectedIndex()) {
+            case 1 -> now.plusHours(24);
+            case 2 -> now.plusDays(7);
+            default -> null;
+        };
+        final int requestGeneration = ++searchGeneration;
+        new SwingWorker<List<Flight>, List<Flight>>() {
+            @Override
+            protected List<Flight> doInBackground() {
+                String departure = from.isEmpty() ? null : from;
+                return until == null
+                        ? flights.topK(departure, null, sortBy, TOP_FLIGHTS, this::publish)
+                        : flights.topK(departure, now, until, null, sortBy, TOP_FLIGHTS, this::publish);
+            }
 
-private void setupSeatMapPanel() {
-    int numRows = 30;
-    String[] seatColumns = {"A", "B", "C", " ", "D", "E", "F"};
-    String[][] seatData = new String[numRows][seatColumns.length];
+            @Override
+            protected void process(List<List<Flight>> updates) {
+                if (requestGeneration == searchGeneration) {
+                    showFlights(updates.get(updates.size() - 1));
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (requestGeneration != searchGeneration) {
+                    return;
+                }
+                try {
+                    showFlights(get());
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        }.execute();
+    }
 
-    for (int row = 0; row < numRows; row++) {
-        for (int col = 0; col < seatColumns.length; col++) {
-            seatData[row][col] = seatColumns[col].equals(" ") ? "" : (row + 1) + seatColumns[col];
+    private void showFlights(List<Flight> shown) {
+        shownFlights = shown;
+        flightTableModel.setRowCount(0);
+        for (Flight f : shown) {
+            flightTableModel.addRow(new Object[]{f.getFlightNumber(), f.getDepartureLocation(), f.getArrivalLocation(),
+                    FlightManagementPanel.formatTime(f.getDepartureTime()), f.getPrice()});
         }
     }
 
-    seatMapTableModel = new DefaultTableModel(seatData, seatColumns) {
+   // Inside gui/panels/UserPanel.java
+
+private void setupSeatMapPanel() {
+    seatLayout = Flight.DEFAULT_LAYOUT;
+    seatMapTableModel = new DefaultTableModel(seatLayout.toGrid(), seatLayout.getColumnHeaders()) {
         public boolean isCellEditable(int row, int col) { return false; }
     };
     seatMapTable = new JTable(seatMapTableModel);
@@ -108,27 +209,7 @@ private void setupSeatMapPanel() {
     seatMapRenderer = new SeatMapCellRenderer();
     seatMapTable.setDefaultRenderer(Object.class, seatMapRenderer);
     seatMapTable.setRowHeight(25);
-    seatMapTable.getSelectionModel().addListSelectionListener(new SeatSelectionListener(seatData, seatColumns));
-
-    // Calculate total preferred width for the seat map table
-    int totalWidth = 0;
-    for (int i = 0; i < seatMapTable.getColumnCount(); i++) {
-        TableColumn column = seatMapTable.getColumnModel().getColumn(i);
-        if (seatColumns[i].equals(" ")) { // Aisle column
-            column.setPreferredWidth(20);
-            column.setMinWidth(20);
-            column.setMaxWidth(20);
-            totalWidth += 20; // Add to total width
-        } else {
-            column.setPreferredWidth(40);
-            column.setMinWidth(40);
-            column.setMaxWidth(40); // Fix width for seat columns
-            totalWidth += 40; // Add to total width
-        }
-    }
-    // Add space for table borders/grid lines and potential scrollbar
-    totalWidth += seatMapTable.getIntercellSpacing().width * (seatMapTable.getColumnCount() - 1); // For intercell spacing
-    totalWidth += seatMapTable.getInsets().left + seatMapTable.getInsets().right; // For table insets
+    seatMapTable.getSelectionModel().addListSelectionListener(new SeatSelectionListener());
 
     seatMapTable.getTableHeader().setResizingAllowed(false);
     seatMapTable.getTableHeader().setReorderingAllowed(false);
@@ -139,21 +220,69 @@ private void setupSeatMapPanel() {
     seatMapTable.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
 
     // 2. Wrap the JTable in a JScrollPane
-    JScrollPane scrollPane = new JScrollPane(seatMapTable);
-
-    // 3. Explicitly set the preferred width of the JScrollPane
-    // This makes the JScrollPane try to be only as wide as its contained table.
-    // The height can be flexible, but the width should be constrained.
-    Dimension preferredScrollPaneSize = new Dimension(totalWidth + scrollPane.getVerticalScrollBar().getPreferredSize().width + 5, // Add scrollbar width and a little extra padding
-                                                       seatMapTable.getPreferredScrollableViewportSize().height); // Let height be determined by table rows
-    scrollPane.setPreferredSize(preferredScrollPaneSize);
-    scrollPane.setMaximumSize(preferredScrollPaneSize); // Important: Prevent it from growing too wide
+    seatMapScrollPane = new JScrollPane(seatMapTable);
+    fitSeatMapColumns();
 
     // Adding a border to see the boundaries (optional, for debugging)
     // scrollPane.setBorder(BorderFactory.createLineBorder(Color.BLUE));
 
-    add(scrollPane, BorderLayout.EAST);
+    add(seatMapScrollPane, BorderLayout.EAST);
 }
+
+    // Swaps the grid for another cabin; the cells are the layout's interned seat IDs
+    private void showSeatMap(CabinLayout layout) {
+        if (layout == seatLayout) {
+            return;
+        }
+        seatLayout = layout;
+        seatMapTableModel.setDataVector(layout.toGrid(), layout.getColumnHeaders());
+        fitSeatMapColumns();
+        seatMapScrollPane.revalidate();
+    }
+
+    // Repaints only the seats that changed since the seat map was last drawn
+    private void refreshSeatMap() {
+        Flight flight = currentlySelectedFlight;
+        if (flight == null) {
+            return;
+        }
+        SeatInventory seats = flight.getSeatInventory();
+        SeatChangeLog.Changes changes = seats.changesSince(seatMapVersion);
+        seatMapVersion = changes.getToVersion();
+        if (!changes.isComplete()) {
+            seatMapTable.repaint();
+            return;
+        }
+        for (int i = 0; i < changes.size(); i++) {
+            int ordinal = changes.getOrdinal(i);
+            seatMapTableModel.fireTableCellUpdated(seatLayout.gridRowOf(ordinal), seatLayout.columnOf(ordinal));
+        }
+    }
+
+    private void fitSeatMapColumns() {
+        // Calculate total preferred width for the seat map table
+        int totalWidth = 0;
+        for (int i = 0; i < seatMapTable.getColumnCount(); i++) {
+            TableColumn column = seatMapTable.getColumnModel().getColumn(i);
+            int width = seatLayout.isAisle(i) ? 20 : 40; // Fix width for aisle and seat columns
+            column.setPreferredWidth(width);
+            column.setMinWidth(width);
+            column.setMaxWidth(width);
+            totalWidth += width;
+        }
+        // Add space for table borders/grid lines and potential scrollbar
+        totalWidth += seatMapTable.getIntercellSpacing().width * (seatMapTable.getColumnCount() - 1); // For intercell spacing
+        totalWidth += seatMapTable.getInsets().left + seatMapTable.getInsets().right; // For table insets
+
+        // 3. Explicitly set the preferred width of the JScrollPane
+        // This makes the JScrollPane try to be only as wide as its contained table.
+        // The height can be flexible, but the width should be constrained.
+        Dimension preferredScrollPaneSize = new Dimension(totalWidth + seatMapScrollPane.getVerticalScrollBar().getPreferredSize().width + 5, // Add scrollbar width and a little extra padding
+                                                           seatMapTable.getPreferredScrollableViewportSize().height); // Let height be determined by table rows
+        seatMapScrollPane.setPreferredSize(preferredScrollPaneSize);
+        seatMapScrollPane.setMaximumSize(preferredScrollPaneSize); // Important: Prevent it from growing too wide
+    }
+
     private void setupControlPanel() {
         JPanel southPanel = new JPanel();
         southPanel.setLayout(new BoxLayout(southPanel, BoxLayout.LINE_AXIS));
@@ -168,6 +297,12 @@ private void setupSeatMapPanel() {
 
         southPanel.add(Box.createHorizontalGlue());
 
+        JButton connectionsButton = new JButton("Find Connections...");
+        connectionsButton.addActionListener(e -> findConnections());
+        southPanel.add(connectionsButton);
+
+        southPanel.add(Box.createRigidArea(new Dimension(10, 0)));
+
         bookAndPayButton = new JButton("Book & Pay");
         bookAndPayButton.addActionListener(e -> handleBookAndPay());
         southPanel.add(bookAndPayButton);
@@ -186,6 +321,10 @@ private void setupSeatMapPanel() {
             JOptionPane.showMessageDialog(this, "Please select a flight.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (currentlySelectedFlight.getRemainingSeats() == 0) {
+            offerWaitlist();
+            return;
+        }
         if (selectedSeatField.getText().isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please select a seat.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
@@ -197,35 +336,111 @@ private void setupSeatMapPanel() {
             return;
         }
 
+        Flight flight = currentlySelectedFlight; // the table may reload while payment is open
+        SeatHoldManager.SeatHold hold = seatHolds.hold(flight.getSeatInventory(), seatIdToBook, SEAT_HOLD_TTL);
+        if (hold == null) {
+            JOptionPane.showMessageDialog(this, "The selected seat is being booked by someone else. Please choose another.", "Seat Unavailable", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        refreshSeatMap();
+
         PaymentDialog dialog = new PaymentDialog(SwingUtilities.getWindowAncestor(this), currentlySelectedFlight.getPrice());
         dialog.setVisible(true);
 
-        if (dialog.isPaymentConfirmed()) {
-            currentlySelectedFlight.bookSeat(seatIdToBook);
+        if (dialog.isPaymentConfirmed() && !seatHolds.confirm(hold)) {
+            flight.offerSeatToWaitlist(seatIdToBook);
+            JOptionPane.showMessageDialog(this, "Your hold on seat " + seatIdToBook + " expired before payment completed. Please select a seat again.", "Hold Expired", JOptionPane.ERROR_MESSAGE);
+            refreshSeatMap();
+        } else if (dialog.isPaymentConfirmed()) {
             JOptionPane.showMessageDialog(this, "Payment successful! Seat " + seatIdToBook + " booked for flight " + currentlySelectedFlight.getFlightNumber(), "Booking Confirmed", JOptionPane.INFORMATION_MESSAGE);
 
-            seatMapRenderer.setBookedSeats(currentlySelectedFlight.getBookedSeats());
-            seatMapTable.repaint();
+            refreshSeatMap();
             selectedSeatField.setText("");
             seatMapTable.clearSelection();
         } else {
+            seatHolds.release(hold);
+            flight.offerSeatToWaitlist(seatIdToBook);
+            refreshSeatMap();
             JOptionPane.showMessageDialog(this, "Payment cancelled or failed.", "Payment Status", JOptionPane.WARNING_MESSAGE);
         }
     }
 
+    // The flight is full: the passenger can wait for a cancellation instead
+    private void offerWaitlist() {
+        String passengerName = userNameField.getText().trim();
+        if (passengerName.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "This flight is full. Enter your name to join the waitlist.", "Flight Full", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        int choice = JOptionPane.showConfirmDialog(this, "Flight " + currentlySelectedFlight.getFlightNumber() + " is full. Join the waitlist?",
+                "Flight Full", JOptionPane.YES_NO_OPTION);
+        if (choice != JOptionPane.YES_OPTION) {
+            return;
+        }
+        Waitlist waitlist = currentlySelectedFlight.getWaitlist();
+        Waitlist.Entry entry;
+        try {
+            entry = currentlySelectedFlight.joinWaitlist(passengerName, currentlySelectedFlight.getPrice());
+        } catch (IllegalStateException e) {
+            JOptionPane.showMessageDialog(this, "A seat on flight " + currentlySelectedFlight.getFlightNumber() + " has just become free. Please select it from the seat map.",
+                    "Seat Available", JOptionPane.INFORMATION_MESSAGE);
+            refreshSeatMap();
+            return;
+        }
+        if (entry.getStatus() == Waitlist.Status.CONFIRMED_NO_SEAT) {
+            JOptionPane.showMessageDialog(this, "You are confirmed on flight " + currentlySelectedFlight.getFlightNumber() + ". Your seat will be assigned as soon as one is free.",
+                    "Booking Confirmed", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "You are number " + waitlist.positionOf(entry) + " on the waitlist for flight " + currentlySelectedFlight.getFlightNumber() + ".",
+                    "Waitlisted", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    // Cheapest ways from one place to another, changing planes if need be
+    private void findConnections() {
+        String from = JOptionPane.showInputDialog(this, "Flying from:", "Find Connections", JOptionPane.QUESTION_MESSAGE);
+        if (from == null || from.isBlank()) {
+            return;
+        }
+        String to = JOptionPane.showInputDialog(this, "Flying to:", "Find Connections", JOptionPane.QUESTION_MESSAGE);
+        if (to == null || to.isBlank()) {
+            return;
+        }
+        if (connectionSearch == null) {
+            connectionSearch = new ConnectionSearch(flights.getAvailableFlights(), airports.getAirports(),
+                    ConnectionSearch.DEFAULT_MIN_CONNECTION, ConnectionSearch.DEFAULT_MAX_CONNECTION);
+        }
+        List<ConnectionSearch.Itinerary> itineraries =
+                connectionSearch.search(from, to, CONNECTIONS_SHOWN, ConnectionSearch.Criterion.CHEAPEST);
+        if (itineraries.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No flights or connections found from " + from + " to " + to + ".",
+                    "Find Connections", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        StringBuilder message = new StringBuilder();
+        for (ConnectionSearch.Itinerary itinerary : itineraries) {
+            message.append(itinerary).append('\n');
+        }
+        JOptionPane.showMessageDialog(this, message.toString(), "Find Connections", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private class FlightSelectionListener implements ListSelectionListener {
         @Override
         public void valueChanged(ListSelectionEvent e) {
             if (!e.getValueIsAdjusting()) {
                 int selectedRow = flightTable.getSelectedRow();
-                if (selectedRow >= 0) {
-                    currentlySelectedFlight = flights.get(selectedRow);
-                    seatMapRenderer.setBookedSeats(currentlySelectedFlight.getBookedSeats());
+                // By row, not by number: the same number can be listed once per departure
+                Flight flight = selectedRow >= 0 && selectedRow < shownFlights.size() ? shownFlights.get(selectedRow) : null;
+                if (flight != null) {
+                    currentlySelectedFlight = flight;
+                    seatMapRenderer.setInventory(currentlySelectedFlight.getSeatInventory());
+                    seatMapVersion = currentlySelectedFlight.getSeatInventory().getVersion();
+                    showSeatMap(currentlySelectedFlight.getCabinLayout());
                     seatMapTable.repaint();
                     selectedSeatField.setText("");
                 } else {
                     currentlySelectedFlight = null;
-                    seatMapRenderer.setBookedSeats(new HashSet<>());
+                    seatMapRenderer.setInventory(null);
                     seatMapTable.repaint();
                     selectedSeatField.setText("");
                 }
@@ -234,17 +449,12 @@ private void setupSeatMapPanel() {
     }
 
     private class SeatSelectionListener implements ListSelectionListener {
-        private String[][] seatData;
-        public SeatSelectionListener(String[][] seatData, String[] seatColumns) {
-            this.seatData = seatData;
-        }
-
         @Override
         public void valueChanged(ListSelectionEvent e) {
             int row = seatMapTable.getSelectedRow();
             int col = seatMapTable.getSelectedColumn();
             if (!e.getValueIsAdjusting() && row >= 0 && col >= 0) {
-                String seatId = seatData[row][col];
+                String seatId = seatLayout.seatIdAt(row, col);
 
                 if (!seatId.isEmpty()) {
                     if (currentlySelectedFlight != null && !currentlySelectedFlight.isSeatBooked(seatId)) {
@@ -265,9 +475,8 @@ private void setupSeatMapPanel() {
 
     // This method needs to be called when flights data changes (e.g., from admin panel)
     public void updateUserFlightTable() {
-        flightTableModel.setRowCount(0); // Clear existing data
-        for (Flight f : flights) {
-            flightTableModel.addRow(new Object[]{f.getFlightNumber(), f.getDepartureLocation(), f.getArrivalLocation(), f.getPrice()});
-        }
+        connectionSearch = null;
+        searchGeneration++;
+        showFlights(flights.getAvailableFlights());
     }
 }
\ No newline at end of file
@@ -4,11 +4,20 @@ public class Aircraft {
     private String registrationNumber;
     private String model;
     private int capacity;
+    private CabinLayout cabinLayout;
 
+    /**
+     * The capacity only sizes the cabin of an unknown model; the aircraft's
+     * capacity is then whatever its layout seats (see {@link #setCapacity}).
+     */
     public Aircraft(String registrationNumber, String model, int capacity) {
+        this(registrationNumber, model, CabinLayout.forAircraft(model, capacity));
+    }
+
+    public Aircraft(String registrationNumber, String model, CabinLayout cabinLayout) {
         this.registrationNumber = registrationNumber;
         this.model = model;
-        this.capacity = capacity;
+        setCabinLayout(cabinLayout);
     }
 
     public String getRegistrationNumber() {
@@ -23,8 +32,23 @@ public class Aircraft {
         return capacity;
     }
 
+    /**
+     * Resizes the cabin for a new capacity. Known models keep their real
+     * plan and a custom cabin is built from whole rows, so getCapacity()
+     * afterwards reports the seats the layout actually sells, which may
+     * differ from the number asked for.
+     */
     public void setCapacity(int capacity) {
-        this.capacity = capacity;
+        setCabinLayout(CabinLayout.forAircraft(model, capacity));
+    }
+
+    private void setCabinLayout(CabinLayout cabinLayout) {
+        this.cabinLayout = cabinLayout;
+        this.capacity = cabinLayout.getSeatCount() - cabinLayout.getBlockedCount();
+    }
+
+    public CabinLayout getCabinLayout() {
+        return cabinLayout;
     }
 
     @Override
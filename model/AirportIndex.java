@@ -0,0 +1,143 @@
+package model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Airports looked up by the start of their code, IATA code, name or city,
+ * for type-ahead.
+ *
+ * Every field is folded to lower case without accents ("Zürich" matches
+ * "zur") and kept in a sorted map per field, the words of multi-word names
+ * and cities too. A query is a range scan of each map in rank order, IATA
+ * code first and inner words last, stopping once it has enough airports, so
+ * it costs O(log n + limit) per field however many airports are loaded.
+ * Adding or removing an airport updates only its own entries.
+ */
+public class AirportIndex {
+    /** Fields in the order their matches are ranked. */
+    private enum Field { IATA, CODE, CITY, NAME, WORD }
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORDS = Pattern.compile("[\\s\\-/()]+");
+
+    private final Map<String, Airport> byCode = new LinkedHashMap<>();
+    private final Map<Field, NavigableMap<String, Set<Airport>>> terms = new EnumMap<>(Field.class);
+
+    public AirportIndex() {
+        for (Field field : Field.values()) {
+            terms.put(field, new TreeMap<>());
+        }
+    }
+
+    /** @return false if an airport with the same code is already indexed */
+    public synchronized boolean add(Airport airport) {
+        String code = fold(airport.getCode());
+        if (code.isEmpty() || byCode.containsKey(code)) {
+            return false;
+        }
+        byCode.put(code, airport);
+        forEachTerm(airport, (field, term) ->
+                terms.get(field).computeIfAbsent(term, t -> new LinkedHashSet<>()).add(airport));
+        return true;
+    }
+
+    /** @return the airport taken out of the index, or null if none had the code */
+    public synchronized Airport remove(String code) {
+        Airport airport = byCode.remove(fold(code));
+        if (airport != null) {
+            forEachTerm(airport, (field, term) -> {
+                Set<Airport> airports = terms.get(field).get(term);
+                if (airports != null && airports.remove(airport) && airports.isEmpty()) {
+                    terms.get(field).remove(term);
+                }
+            });
+        }
+        return airport;
+    }
+
+    public synchronized Airport getByCode(String code) {
+        return code == null ? null : byCode.get(fold(code));
+    }
+
+    /** All airports in the order they were added; a copy, safe to keep. */
+    public synchronized List<Airport> getAirports() {
+        return Collections.unmodifiableList(new ArrayList<>(byCode.values()));
+    }
+
+    public synchronized int size() {
+        return byCode.size();
+    }
+
+    /**
+     * Up to limit airports with a field starting with the prefix, best match
+     * first: IATA code, then code, city, full name and finally any word of
+     * the name or city; alphabetically within each.
+     */
+    public synchronized List<Airport> search(String prefix, int limit) {
+        String key = fold(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<Airport> matches = new LinkedHashSet<>();
+        for (Field field : Field.values()) {
+            for (Set<Airport> airports : terms.get(field).subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+                for (Airport airport : airports) {
+                    matches.add(airport);
+                    if (matches.size() == limit) {
+                        return List.copyOf(matches);
+                    }
+                }
+            }
+        }
+        return List.copyOf(matches);
+    }
+
+    private interface TermVisitor {
+        void visit(Field field, String term);
+    }
+
+    private static void forEachTerm(Airport airport, TermVisitor visitor) {
+        visit(visitor, Field.IATA, fold(airport.getIataCode()));
+        visit(visitor, Field.CODE, fold(airport.getCode()));
+        String city = fold(airport.getCity());
+        String name = fold(airport.getName());
+        visit(visitor, Field.CITY, city);
+        visit(visitor, Field.NAME, name);
+        Set<String> words = new LinkedHashSet<>();
+        Collections.addAll(words, WORDS.split(name));
+        Collections.addAll(words, WORDS.split(city));
+        words.remove(name);
+        words.remove(city);
+        for (String word : words) {
+            visit(visitor, Field.WORD, word);
+        }
+    }
+
+    private static void visit(TermVisitor visitor, Field field, String term) {
+        if (!term.isEmpty()) {
+            visitor.visit(field, term);
+        }
+    }
+
+    // Lower case without accents, so "Zürich", "ZURICH" and "zurich" are one key.
+    // The flight indexes key place names the same way.
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,280 @@
+package model;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Seat plan of an aircraft cabin: rows, seat letters, aisles, exit rows and
+ * seats that cannot be sold.
+ *
+ * A row template such as "ABC DEF" lists the letters left to right with a
+ * space for each aisle. Everything a seat map or SeatInventory needs is
+ * computed once here: the interned seat-ID table, the ordinal of every
+ * grid cell and the letter lookup used to parse seat IDs. Rendering and
+ * seat checks then only index arrays; no seat-ID String is ever rebuilt.
+ */
+public class CabinLayout {
+    /** The GUI's original 14-row, six-abreast cabin. */
+    public static final CabinLayout REGIONAL = new CabinLayout("Regional", 14, "ABC DEF", new int[0]);
+    /** Narrow body, 3-3 with overwing exits. */
+    public static final CabinLayout NARROW_BODY = new CabinLayout("A320", 30, "ABC DEF", new int[]{12, 13});
+    /** Wide body, 3-4-3 (no letter I), with door exits. */
+    public static final CabinLayout WIDE_BODY = new CabinLayout("B787", 40, "ABC DEFG HJK", new int[]{1, 15, 30});
+
+    private final String name;
+    private final int rows;
+    private final char[] letters;
+    // Grid column -> letter index, -1 for an aisle
+    private final int[] columnLetter;
+    // Letter index -> grid column
+    private final int[] letterColumn;
+    private final String[] columnHeaders;
+    // Bit i set when an aisle runs between letter i and letter i + 1
+    private final long aisleMask;
+    // Letter -> index, -1 if not on this layout; indexed by char (ASCII only)
+    private final byte[] letterIndex = new byte[128];
+    private final String[] seatIds;
+    private final boolean[] exitRows;
+    private final BitSet blocked = new BitSet();
+
+    /**
+     * @param rowTemplate seat letters left to right, one space per aisle, e.g. "ABC DEFG HJK"
+     * @param exitRowNumbers 1-based rows with an emergency exit
+     * @param blockedSeats seat IDs that are never sold (crew rests, missing seats)
+     */
+    public CabinLayout(String name, int rows, String rowTemplate, int[] exitRowNumbers, String... blockedSeats) {
+        if (rows <= 0 || rowTemplate == null || rowTemplate.isBlank()) {
+            throw new IllegalArgumentException("A cabin layout needs at least one row and one seat letter");
+        }
+        this.name = name;
+        this.rows = rows;
+        this.letters = rowTemplate.replace(" ", "").toCharArray();
+        Arrays.fill(letterIndex, (byte) -1);
+        for (int i = 0; i < letters.length; i++) {
+            char upper = Character.toUpperCase(letters[i]);
+            if (upper >= 128 || !Character.isLetter(upper)) {
+                throw new IllegalArgumentException("Seat letters must be ASCII letters: " + rowTemplate);
+            }
+            if (letterIndex[upper] >= 0) {
+                throw new IllegalArgumentException("Duplicate seat letter " + upper + " in " + rowTemplate);
+            }
+            letters[i] = upper;
+            letterIndex[upper] = (byte) i;
+            letterIndex[Character.toLowerCase(upper)] = (byte) i;
+        }
+
+        String template = rowTemplate.trim();
+        this.columnLetter = new int[template.length()];
+        this.columnHeaders = new String[template.length()];
+        this.letterColumn = new int[letters.length];
+        long aisles = 0;
+        for (int col = 0, letter = 0; col < template.length(); col++) {
+            boolean aisle = template.charAt(col) == ' ';
+            if (aisle && letter > 0) {
+                aisles |= 1L << (letter - 1);
+            }
+            if (!aisle) {
+                letterColumn[letter] = col;
+            }
+            columnLetter[col] = aisle ? -1 : letter++;
+            columnHeaders[col] = aisle ? " " : String.valueOf(letters[columnLetter[col]]);
+        }
+        this.aisleMask = aisles;
+
+        this.seatIds = new String[rows * letters.length];
+        for (int ordinal = 0; ordinal < seatIds.length; ordinal++) {
+            seatIds[ordinal] = ((ordinal / letters.length + 1) + String.valueOf(letters[ordinal % letters.length])).intern();
+        }
+
+        this.exitRows = new boolean[rows + 1];
+        for (int row : exitRowNumbers) {
+            if (row >= 1 && row <= rows) {
+                exitRows[row] = true;
+            }
+        }
+        for (String seatId : blockedSeats) {
+            int ordinal = ordinal(seatId);
+            if (ordinal < 0) {
+                throw new IllegalArgumentException("Blocked seat " + seatId + " is not on this layout");
+            }
+            blocked.set(ordinal);
+        }
+    }
+
+    /**
+     * Layout for an aircraft type. Known model names get their real plan;
+     * anything else gets a six-abreast cabin with enough rows for the capacity.
+     */
+    public static CabinLayout forAircraft(String model, int capacity) {
+        String m = model == null ? "" : model.toUpperCase().replace(" ", "");
+        if (m.contains("787") || m.contains("777") || m.contains("A330") || m.contains("A350")) {
+            return WIDE_BODY;
+        }
+        if (m.contains("A320") || m.contains("737")) {
+            return NARROW_BODY;
+        }
+        if (capacity <= 0) {
+            return NARROW_BODY;
+        }
+        int rows = (capacity + 5) / 6;
+        return new CabinLayout(model == null ? "Custom" : model, rows, "ABC DEF", new int[0]);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getSeatsPerRow() {
+        return letters.length;
+    }
+
+    public int getSeatCount() {
+        return seatIds.length;
+    }
+
+    public char getLetter(int letterIndex) {
+        return letters[letterIndex];
+    }
+
+    /** Bit i is set when an aisle separates letter i from letter i + 1. */
+    public long getAisleMask() {
+        return aisleMask;
+    }
+
+    /** Bit i is set for each letter with a window: the first and last seat of the row. */
+    public long getWindowMask() {
+        return 1L | (1L << (letters.length - 1));
+    }
+
+    /** Bit i is set for each letter next to an aisle. */
+    public long getAisleSeatMask() {
+        return aisleMask | (aisleMask << 1);
+    }
+
+    // ========== Grid (seat map) ==========
+
+    /** Columns of the seat map, aisles included. */
+    public int getColumnCount() {
+        return columnLetter.length;
+    }
+
+    public String getColumnHeader(int column) {
+        return columnHeaders[column];
+    }
+
+    public boolean isAisle(int column) {
+        return columnLetter[column] < 0;
+    }
+
+    /** Letter index shown in a grid column, or -1 for an aisle. */
+    public int letterAtColumn(int column) {
+        return columnLetter[column];
+    }
+
+    /** 0-based grid column showing the seat with this ordinal. */
+    public int columnOf(int ordinal) {
+        return letterColumn[ordinal % letters.length];
+    }
+
+    /** 0-based grid row showing the seat with this ordinal. */
+    public int gridRowOf(int ordinal) {
+        return ordinal / letters.length;
+    }
+
+    /** Ordinal of the seat in a 0-based grid cell, or -1 for an aisle. */
+    public int ordinalAt(int gridRow, int column) {
+        int letter = columnLetter[column];
+        return letter < 0 ? -1 : gridRow * letters.length + letter;
+    }
+
+    /** Interned seat ID of a 0-based grid cell, or "" for an aisle. */
+    public String seatIdAt(int gridRow, int column) {
+        int ordinal = ordinalAt(gridRow, column);
+        return ordinal < 0 ? "" : seatIds[ordinal];
+    }
+
+    /** The whole seat map as table cells, aisles as "". Cells are the interned seat IDs. */
+    public Object[][] toGrid() {
+        Object[][] grid = new Object[rows][columnLetter.length];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columnLetter.length; col++) {
+                grid[row][col] = seatIdAt(row, col);
+            }
+        }
+        return grid;
+    }
+
+    public Object[] getColumnHeaders() {
+        return columnHeaders.clone();
+    }
+
+    // ========== Ordinals ==========
+
+    /** Ordinal for a 1-based row and 0-based letter index, or -1 if outside the layout. */
+    public int ordinal(int row, int letter) {
+        if (row < 1 || row > rows || letter < 0 || letter >= letters.length) {
+            return -1;
+        }
+        return (row - 1) * letters.length + letter;
+    }
+
+    /** Parses a seat ID like "12C" without allocating; -1 if it is malformed or not on this layout. */
+    public int ordinal(String seatId) {
+        if (seatId == null) {
+            return -1;
+        }
+        int length = seatId.length();
+        if (length < 2 || length > 6) {
+            return -1;
+        }
+        char last = seatId.charAt(length - 1);
+        int letter = last < 128 ? letterIndex[last] : -1;
+        if (letter < 0) {
+            return -1;
+        }
+        int row = 0;
+        for (int i = 0; i < length - 1; i++) {
+            char c = seatId.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            row = row * 10 + (c - '0');
+        }
+        return ordinal(row, letter);
+    }
+
+    /** Interned seat ID for an ordinal. */
+    public String seatId(int ordinal) {
+        return seatIds[ordinal];
+    }
+
+    /** 1-based row of an ordinal. */
+    public int rowOf(int ordinal) {
+        return ordinal / letters.length + 1;
+    }
+
+    public int letterOf(int ordinal) {
+        return ordinal % letters.length;
+    }
+
+    public boolean isExitRow(int row) {
+        return row >= 1 && row <= rows && exitRows[row];
+    }
+
+    public boolean isBlocked(int ordinal) {
+        return blocked.get(ordinal);
+    }
+
+    public int getBlockedCount() {
+        return blocked.cardinality();
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + rows + " rows, " + letters.length + " abreast)";
+    }
+}
@@ -0,0 +1,377 @@
+package model;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds itineraries of one or more flights between two places.
+ *
+ * The flights are turned into a graph once: places are nodes (an airport's
+ * code, IATA code and name all lead to its city) and each node keeps its
+ * departing flights sorted by departure time. A search is a Dijkstra over
+ * partial itineraries ordered by total fare or by elapsed time, so the k
+ * best come out first and the search stops as soon as it has them. It is
+ * kept small by the leg limit, by only following flights that leave within
+ * the connection window after the previous arrival (found by binary search),
+ * by never visiting a place twice, by never going where the destination is
+ * more flights away than the legs left (a breadth-first pass backwards from
+ * the destination), and by dropping a partial itinerary once k others
+ * reached the same place no later, no dearer and in no more legs.
+ *
+ * Flights without a schedule connect to anything, as there is nothing to
+ * check; they are left out of fastest searches. Full flights are skipped.
+ * The graph is a snapshot: build a new one when flights are added or removed.
+ */
+public class ConnectionSearch {
+    public static final Duration DEFAULT_MIN_CONNECTION = Duration.ofMinutes(45);
+    public static final Duration DEFAULT_MAX_CONNECTION = Duration.ofHours(24);
+    public static final int DEFAULT_MAX_LEGS = 3;
+    // Partial itineraries expanded before a search settles for what it has
+    private static final int MAX_EXPANSIONS = 200_000;
+    private static final long UNSCHEDULED = Long.MIN_VALUE;
+
+    public enum Criterion { CHEAPEST, FASTEST }
+
+    /** Flights taken one after the other. */
+    public static final class Itinerary {
+        private final List<Flight> legs;
+        private final double totalPrice;
+
+        private Itinerary(List<Flight> legs, double totalPrice) {
+            this.legs = legs;
+            this.totalPrice = totalPrice;
+        }
+
+        public List<Flight> getLegs() { return legs; }
+        public int getLegCount() { return legs.size(); }
+        public double getTotalPrice() { return totalPrice; }
+        public LocalDateTime getDepartureTime() { return legs.get(0).getDepartureTime(); }
+        public LocalDateTime getArrivalTime() { return legs.get(legs.size() - 1).getArrivalTime(); }
+
+        /** Departure to final arrival, or null unless every leg is scheduled. */
+        public Duration getTotalDuration() {
+            for (Flight leg : legs) {
+                if (!leg.isScheduled()) {
+                    return null;
+                }
+            }
+            return Duration.between(getDepartureTime(), getArrivalTime());
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder numbers = new StringBuilder();
+            for (Flight leg : legs) {
+                numbers.append(numbers.length() == 0 ? "" : " + ").append(leg.getFlightNumber());
+            }
+            return String.format("%s (%s to %s, %.2f)", numbers, legs.get(0).getDepartureLocation(),
+                    legs.get(legs.size() - 1).getArrivalLocation(), totalPrice);
+        }
+    }
+
+    // A partial itinerary ending at node; legs are read back through parent
+    private static final class Label {
+        final int node;
+        final int legs;
+        final double cost;
+        final double price;
+        final long firstDeparture;
+        final long arrival;
+        final Flight flight;
+        final Label parent;
+
+        Label(int node, int legs, double cost, double price, long firstDeparture, long arrival, Flight flight, Label parent) {
+            this.node = node;
+            this.legs = legs;
+            this.cost = cost;
+            this.price = price;
+            this.firstDeparture = firstDeparture;
+            this.arrival = arrival;
+            this.flight = flight;
+            this.parent = parent;
+        }
+
+        // Whatever can follow other can also follow this one
+        boolean readyNoLaterThan(Label other) {
+            return arrival == UNSCHEDULED || (other.arrival != UNSCHEDULED && arrival <= other.arrival);
+        }
+
+        boolean visits(int place) {
+            for (Label l = this; l != null; l = l.parent) {
+                if (l.node == place) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final Comparator<Label> BY_COST =
+        Comparator.<Label>comparingDouble(l -> l.cost).thenComparingInt(l -> l.legs).thenComparingDouble(l -> l.price);
+
+    private final Map<String, String> aliases = new HashMap<>();
+    private final Map<String, Integer> nodes = new HashMap<>();
+    private final long minConnectionSeconds;
+    private final long maxConnectionSeconds;
+    // Per node: scheduled departures sorted by time, with their times and destinations alongside
+    private Flight[][] scheduled;
+    private long[][] departures;
+    private int[][] scheduledTargets;
+    // Per node: departures without a schedule
+    private Flight[][] unscheduled;
+    private int[][] unscheduledTargets;
+    // Per node: places with a flight to it, each listed once
+    private int[][] sources;
+
+    public ConnectionSearch(Collection<Flight> flights) {
+        this(flights, List.of(), DEFAULT_MIN_CONNECTION, DEFAULT_MAX_CONNECTION);
+    }
+
+    public ConnectionSearch(Collection<Flight> flights, Collection<Airport> airports,
+                            Duration minConnection, Duration maxConnection) {
+        if (minConnection.isNegative() || maxConnection.compareTo(minConnection) < 0) {
+            throw new IllegalArgumentException("Connection window must run from " + minConnection + " forward");
+        }
+        this.minConnectionSeconds = minConnection.getSeconds();
+        this.maxConnectionSeconds = maxConnection.getSeconds();
+        for (Airport airport : airports) {
+            String city = placeKey(airport.getCity());
+            if (city.isEmpty()) {
+                continue;
+            }
+            for (String alias : new String[]{airport.getCode(), airport.getIataCode(), airport.getName()}) {
+                if (alias != null && !placeKey(alias).isEmpty()) {
+                    aliases.put(placeKey(alias), city);
+                }
+            }
+        }
+        build(flights);
+    }
+
+    private void build(Collection<Flight> flights) {
+        List<List<Flight>> timed = new ArrayList<>();
+        List<List<Flight>> untimed = new ArrayList<>();
+        for (Flight flight : flights) {
+            int from = node(flight.getDepartureLocation(), true);
+            node(flight.getArrivalLocation(), true);
+            while (timed.size() < nodes.size()) {
+                timed.add(new ArrayList<>());
+                untimed.add(new ArrayList<>());
+            }
+            (flight.isScheduled() ? timed : untimed).get(from).add(flight);
+        }
+        int count = nodes.size();
+        scheduled = new Flight[count][];
+        departures = new long[count][];
+        scheduledTargets = new int[count][];
+        unscheduled = new Flight[count][];
+        unscheduledTargets = new int[count][];
+        sources = new int[count][];
+        for (int n = 0; n < count; n++) {
+            Flight[] out = timed.get(n).toArray(new Flight[0]);
+            Arrays.sort(out, Comparator.comparing(Flight::getDepartureTime));
+            scheduled[n] = out;
+            departures[n] = new long[out.length];
+            scheduledTargets[n] = new int[out.length];
+            for (int i = 0; i < out.length; i++) {
+                departures[n][i] = seconds(out[i].getDepartureTime());
+                scheduledTargets[n][i] = node(out[i].getArrivalLocation(), false);
+            }
+            unscheduled[n] = untimed.get(n).toArray(new Flight[0]);
+            unscheduledTargets[n] = new int[unscheduled[n].length];
+            for (int i = 0; i < unscheduled[n].length; i++) {
+                unscheduledTargets[n][i] = node(unscheduled[n][i].getArrivalLocation(), false);
+            }
+        }
+        List<Set<Integer>> incoming = new ArrayList<>(count);
+        for (int n = 0; n < count; n++) {
+            incoming.add(new HashSet<>());
+        }
+        for (int n = 0; n < count; n++) {
+            for (int target : scheduledTargets[n]) {
+                incoming.get(target).add(n);
+            }
+            for (int target : unscheduledTargets[n]) {
+                incoming.get(target).add(n);
+            }
+        }
+        for (int n = 0; n < count; n++) {
+            sources[n] = incoming.get(n).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public List<Itinerary> search(String from, String to, int k, Criterion criterion) {
+        return search(from, to, k, DEFAULT_MAX_LEGS, criterion);
+    }
+
+    /**
+     * The k best itineraries from one place to another, best first.
+     *
+     * @return up to k itineraries; empty if either place is unknown or no
+     *         itinerary of at most maxLegs flights exists
+     */
+    public List<Itinerary> search(String from, String to, int k, int maxLegs, Criterion criterion) {
+        if (k <= 0 || maxLegs <= 0) {
+            throw new IllegalArgumentException("k and maxLegs must be positive");
+        }
+        int origin = node(from, false);
+        int destination = node(to, false);
+        if (origin < 0 || destination < 0 || origin == destination) {
+            return List.of();
+        }
+        int[] hopsLeft = hopsTo(destination, maxLegs);
+        if (hopsLeft[origin] > maxLegs) {
+            return List.of();
+        }
+        boolean fastest = criterion == Criterion.FASTEST;
+        List<Itinerary> results = new ArrayList<>(k);
+        Map<Integer, List<Label>> settled = new HashMap<>();
+        PriorityQueue<Label> queue = new PriorityQueue<>(BY_COST);
+        queue.add(new Label(origin, 0, 0, 0, UNSCHEDULED, UNSCHEDULED, null, null));
+        int expansions = 0;
+        Label label;
+        while ((label = queue.poll()) != null && results.size() < k && expansions < MAX_EXPANSIONS) {
+            if (label.node == destination) {
+                results.add(itinerary(label));
+                continue;
+            }
+            if (isDominated(settled, label, k)) {
+                continue;
+            }
+            expansions++;
+            if (label.legs == maxLegs) {
+                continue;
+            }
+            int node = label.node;
+            Flight[] out = scheduled[node];
+            int first = 0;
+            int last = out.length;
+            if (label.arrival != UNSCHEDULED) {
+                first = lowerBound(departures[node], label.arrival + minConnectionSeconds);
+                last = lowerBound(departures[node], label.arrival + maxConnectionSeconds + 1);
+            }
+            for (int i = first; i < last; i++) {
+                Flight flight = out[i];
+                int next = scheduledTargets[node][i];
+                if (hopsLeft[next] >= maxLegs - label.legs || flight.getRemainingSeats() == 0 || label.visits(next)) {
+                    continue;
+                }
+                long departure = departures[node][i];
+                long arrival = seconds(flight.getArrivalTime());
+                long firstDeparture = label.legs == 0 ? departure : label.firstDeparture;
+                double price = label.price + flight.getPrice();
+                double cost = fastest ? arrival - firstDeparture : price;
+                queue.add(new Label(next, label.legs + 1, cost, price, firstDeparture, arrival, flight, label));
+            }
+            if (fastest) {
+                continue;
+            }
+            for (int i = 0; i < unscheduled[node].length; i++) {
+                Flight flight = unscheduled[node][i];
+                int next = unscheduledTargets[node][i];
+                if (hopsLeft[next] >= maxLegs - label.legs || flight.getRemainingSeats() == 0 || label.visits(next)) {
+                    continue;
+                }
+                double price = label.price + flight.getPrice();
+                queue.add(new Label(next, label.legs + 1, price, price, label.firstDeparture, UNSCHEDULED, flight, label));
+            }
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    // Fewest flights from each node to the destination, ignoring times; maxLegs + 1 if more or none
+    private int[] hopsTo(int destination, int maxLegs) {
+        int[] hops = new int[sources.length];
+        Arrays.fill(hops, maxLegs + 1);
+        hops[destination] = 0;
+        int[] queue = new int[sources.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = destination;
+        while (head < tail) {
+            int node = queue[head++];
+            if (hops[node] == maxLegs) {
+                continue;
+            }
+            for (int source : sources[node]) {
+                if (hops[source] > hops[node] + 1) {
+                    hops[source] = hops[node] + 1;
+                    queue[tail++] = source;
+                }
+            }
+        }
+        return hops;
+    }
+
+    // Labels leave the queue best first, so k earlier ones that are ready no later and used no more legs win
+    private static boolean isDominated(Map<Integer, List<Label>> settled, Label label, int k) {
+        List<Label> seen = settled.computeIfAbsent(label.node, n -> new ArrayList<>());
+        int dominating = 0;
+        for (Label other : seen) {
+            if (other.legs <= label.legs && other.readyNoLaterThan(label) && ++dominating >= k) {
+                return true;
+            }
+        }
+        seen.add(label);
+        return false;
+    }
+
+    private static Itinerary itinerary(Label label) {
+        Flight[] legs = new Flight[label.legs];
+        for (Label l = label; l.flight != null; l = l.parent) {
+            legs[l.legs - 1] = l.flight;
+        }
+        return new Itinerary(List.of(legs), label.price);
+    }
+
+    // Node of a place, by city, code or airport name; -1 if unknown and create is false
+    private int node(String place, boolean create) {
+        String key = placeKey(place);
+        key = aliases.getOrDefault(key, key);
+        Integer node = nodes.get(key);
+        if (node == null) {
+            if (!create) {
+                return -1;
+            }
+            node = nodes.size();
+            nodes.put(key, node);
+        }
+        return node;
+    }
+
+    // First index whose value is at least key
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long seconds(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    // Case and accents ignored, as in AirportIndex, so cities and aliases match however they are typed
+    private static String placeKey(String place) {
+        return AirportIndex.fold(place);
+    }
+}
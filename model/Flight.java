@@ -1,22 +1,57 @@
 package model;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Set;
 
 public class Flight {
+    // Flights created without an aircraft get a 30-row, six-abreast cabin
+    public static final CabinLayout DEFAULT_LAYOUT = CabinLayout.NARROW_BODY;
+
     private String flightNumber;
     private String departureLocation;
     private String arrivalLocation;
     private double price;
-    private Set<String> bookedSeats;
+    // Scheduled times, both null for a flight without a schedule
+    private final LocalDateTime departureTime;
+    private final LocalDateTime arrivalTime;
+    private final SeatInventory seats;
+    private final Waitlist waitlist = new Waitlist();
 
     public Flight(String flightNumber, String departureLocation, String arrivalLocation, double price) {
+        this(flightNumber, departureLocation, arrivalLocation, price, DEFAULT_LAYOUT);
+    }
+
+    public Flight(String flightNumber, String departureLocation, String arrivalLocation, double price,
+                  LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        this(flightNumber, departureLocation, arrivalLocation, price, DEFAULT_LAYOUT, departureTime, arrivalTime);
+    }
+
+    public Flight(String flightNumber, String departureLocation, String arrivalLocation, double price, Aircraft aircraft) {
+        this(flightNumber, departureLocation, arrivalLocation, price, aircraft.getCabinLayout());
+    }
+
+    public Flight(String flightNumber, String departureLocation, String arrivalLocation, double price, CabinLayout layout) {
+        this(flightNumber, departureLocation, arrivalLocation, price, layout, null, null);
+    }
+
+    public Flight(String flightNumber, String departureLocation, String arrivalLocation, double price,
+                  CabinLayout layout, LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        if ((departureTime == null) != (arrivalTime == null)) {
+            throw new IllegalArgumentException("Departure and arrival times go together");
+        }
+        if (departureTime != null && arrivalTime.isBefore(departureTime)) {
+            throw new IllegalArgumentException("Flight " + flightNumber + " arrives before it departs");
+        }
         this.flightNumber = flightNumber;
         this.departureLocation = departureLocation;
         this.arrivalLocation = arrivalLocation;
         this.price = price;
-        this.bookedSeats = new HashSet<>();
+        this.departureTime = departureTime;
+        this.arrivalTime = arrivalTime;
+        this.seats = new SeatInventory(layout);
     }
 
     public String getFlightNumber() {
@@ -35,37 +70,121 @@ public class Flight {
         return price;
     }
 
+    public LocalDateTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public LocalDateTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public boolean isScheduled() {
+        return departureTime != null;
+    }
+
+    /** The day this instance of the flight number departs, or null for a flight without a schedule. */
+    public LocalDate getDepartureDate() {
+        return departureTime == null ? null : departureTime.toLocalDate();
+    }
+
+    /** Block time, or null for a flight without a schedule. */
+    public Duration getDuration() {
+        return departureTime == null ? null : Duration.between(departureTime, arrivalTime);
+    }
+
+    /** Read-only live view of the booked seat IDs. */
     public Set<String> getBookedSeats() {
-        return bookedSeats;
+        return seats.bookedSeatIds();
+    }
+
+    public CabinLayout getCabinLayout() {
+        return seats.getLayout();
     }
 
+    public SeatInventory getSeatInventory() {
+        return seats;
+    }
+
+    public int getRemainingSeats() {
+        return seats.remaining();
+    }
+
+    // Seat IDs outside the layout are ignored, as blank ones always were
     public void bookSeat(String seatId) {
-        if (seatId != null && !seatId.trim().isEmpty()) {
-            this.bookedSeats.add(seatId);
-        }
+        seats.book(seatId);
     }
 
+    // A cancellation hands the seat straight to the next passenger on the waitlist
     public void unbookSeat(String seatId) {
-        if (seatId != null && !seatId.trim().isEmpty()) {
-            this.bookedSeats.remove(seatId);
+        int ordinal = seats.ordinal(seatId);
+        if (ordinal >= 0 && seats.unbook(ordinal)) {
+            waitlist.promote(seats, ordinal);
         }
     }
 
+    /**
+     * Frees a seat without offering it to the waitlist, for a cancellation
+     * already saved in the database. A waitlisted passenger has no booking
+     * row there, so seating one would only happen in memory.
+     */
+    public void releaseSeat(String seatId) {
+        seats.unbook(seatId);
+    }
+
+    /** Gives a seat freed some other way, e.g. by a released or lapsed hold, to the waitlist. */
+    public void offerSeatToWaitlist(String seatId) {
+        int ordinal = seats.ordinal(seatId);
+        if (ordinal >= 0 && seats.isFree(ordinal)) {
+            waitlist.promote(seats, ordinal);
+        }
+    }
+
+    public Waitlist getWaitlist() {
+        return waitlist;
+    }
+
+    /** Adds a passenger to this flight once it is full; see {@link Waitlist#join}. */
+    public Waitlist.Entry joinWaitlist(String passengerName, double fare) {
+        return waitlist.join(seats, passengerName, fare);
+    }
+
     public boolean isSeatBooked(String seatId) {
-        return bookedSeats.contains(seatId);
+        return seats.isBooked(seatId);
+    }
+
+    /** Best block of n free seats together, or null; see {@link SeatGroupFinder}. */
+    public SeatGroupFinder.SeatBlock findAdjacentSeats(int n, SeatPreference... preferences) {
+        return SeatGroupFinder.findAdjacentSeats(seats, n, preferences);
+    }
+
+    /** Books n seats together, all or none; null if no such block is left. */
+    public SeatGroupFinder.SeatBlock bookAdjacentSeats(int n, SeatPreference... preferences) {
+        return SeatGroupFinder.bookAdjacentSeats(seats, n, preferences);
+    }
+
+    public boolean isSeatHeld(String seatId) {
+        return seats.isHeld(seatId);
+    }
+
+    /** Read-only live view of the seats held by a payment in progress. */
+    public Set<String> getHeldSeats() {
+        return seats.heldSeatIds();
     }
 
+    // A number flies many times; one flight instance is the number and its departure,
+    // the same key as uq_flight_departure in the database
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Flight flight = (Flight) o;
-        return Objects.equals(flightNumber, flight.flightNumber);
+        return Objects.equals(flightNumber, flight.flightNumber)
+                && Objects.equals(departureTime, flight.departureTime);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(flightNumber);
+        return Objects.hash(flightNumber, departureTime);
     }
 
     @Override
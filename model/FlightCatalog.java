@@ -0,0 +1,209 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * The flights on sale, indexed for lookup.
+ *
+ * A flight number flies many times, so one flight is its number and
+ * departure time, as in {@link Flight#equals} and the database's
+ * uq_flight_departure. Flights are kept by that
+ * identity, by number, by departure, by arrival and by route (departure and
+ * arrival together) in hash indexes that {@link #add} and {@link #remove}
+ * update together, so a lookup by number is O(1) and a route search costs
+ * the size of its result, not of the schedule. Flight numbers match ignoring
+ * case, place names ignoring case and accents. Flights are listed in the
+ * order they were added. Scheduled flights are also kept in a
+ * {@link ScheduleIndex} for time-window queries.
+ */
+public class FlightCatalog implements FlightManager {
+    private final Map<String, Flight> byInstance = new LinkedHashMap<>();
+    private final Map<String, Set<Flight>> byNumber = new HashMap<>();
+    private final Map<String, Set<Flight>> byDeparture = new HashMap<>();
+    private final Map<String, Set<Flight>> byArrival = new HashMap<>();
+    private final Map<String, Set<Flight>> byRoute = new HashMap<>();
+    private final ScheduleIndex schedule = new ScheduleIndex();
+
+    public FlightCatalog() {
+    }
+
+    public FlightCatalog(List<Flight> flights) {
+        for (Flight flight : flights) {
+            add(flight);
+        }
+    }
+
+    /** @return false if a flight with the same number already departs at that time */
+    public synchronized boolean add(Flight flight) {
+        String instance = instanceKey(flight.getFlightNumber(), flight.getDepartureTime());
+        if (byInstance.containsKey(instance)) {
+            return false;
+        }
+        byInstance.put(instance, flight);
+        index(byNumber, numberKey(flight.getFlightNumber()), flight);
+        index(byDeparture, placeKey(flight.getDepartureLocation()), flight);
+        index(byArrival, placeKey(flight.getArrivalLocation()), flight);
+        index(byRoute, routeKey(flight.getDepartureLocation(), flight.getArrivalLocation()), flight);
+        schedule.add(flight);
+        return true;
+    }
+
+    /**
+     * @param departureTime when the flight departs, or null for a flight without a schedule
+     * @return the flight taken off the catalog, or null if it was not listed
+     */
+    public synchronized Flight remove(String flightNumber, LocalDateTime departureTime) {
+        Flight flight = byInstance.remove(instanceKey(flightNumber, departureTime));
+        if (flight != null) {
+            unindex(byNumber, numberKey(flight.getFlightNumber()), flight);
+            unindex(byDeparture, placeKey(flight.getDepartureLocation()), flight);
+            unindex(byArrival, placeKey(flight.getArrivalLocation()), flight);
+            unindex(byRoute, routeKey(flight.getDepartureLocation(), flight.getArrivalLocation()), flight);
+            schedule.remove(flight);
+        }
+        return flight;
+    }
+
+    /** All flights in the order they were added; a copy, safe to keep. */
+    @Override
+    public synchronized List<Flight> getAvailableFlights() {
+        return Collections.unmodifiableList(new ArrayList<>(byInstance.values()));
+    }
+
+    /** The first listed flight with the number, whatever its departure; see {@link #getFlight} for one flight. */
+    @Override
+    public synchronized Flight getFlightByNumber(String flightNumber) {
+        if (flightNumber == null) {
+            return null;
+        }
+        Set<Flight> flights = byNumber.get(numberKey(flightNumber));
+        return flights == null ? null : flights.iterator().next();
+    }
+
+    /** The flight with the number departing at that time (null: the unscheduled one), or null. */
+    public synchronized Flight getFlight(String flightNumber, LocalDateTime departureTime) {
+        return flightNumber == null ? null : byInstance.get(instanceKey(flightNumber, departureTime));
+    }
+
+    /** Every listed flight with the number, one per departure. */
+    public synchronized List<Flight> findByNumber(String flightNumber) {
+        return flightNumber == null ? List.of() : lookup(byNumber, numberKey(flightNumber));
+    }
+
+    public synchronized List<Flight> findByDeparture(String departure) {
+        return lookup(byDeparture, placeKey(departure));
+    }
+
+    public synchronized List<Flight> findByArrival(String arrival) {
+        return lookup(byArrival, placeKey(arrival));
+    }
+
+    public synchronized List<Flight> findByRoute(String departure, String arrival) {
+        return lookup(byRoute, routeKey(departure, arrival));
+    }
+
+    /** See {@link ScheduleIndex#departingBetween}. */
+    public synchronized List<Flight> departingBetween(String origin, LocalDateTime from, LocalDateTime to) {
+        return schedule.departingBetween(origin, from, to);
+    }
+
+    /** See {@link ScheduleIndex#arrivingBetween}. */
+    public synchronized List<Flight> arrivingBetween(String destination, LocalDateTime from, LocalDateTime to) {
+        return schedule.arrivingBetween(destination, from, to);
+    }
+
+    /**
+     * The best k flights from a place, or from anywhere if departure is null,
+     * that pass the filter; see {@link FlightSearch}. Only that place's
+     * flights are scanned, and nothing is copied but the k results. The
+     * listener is called on this thread while the catalog is locked, so it
+     * should only hand the flights on, e.g. with SwingUtilities.invokeLater.
+     */
+    public synchronized List<Flight> topK(String departure, Predicate<Flight> filter, FlightSearch.SortBy sortBy,
+                                          int k, Consumer<List<Flight>> listener) {
+        Collection<Flight> candidates = departure == null
+                ? byInstance.values()
+                : byDeparture.getOrDefault(placeKey(departure), Set.of());
+        FlightSearch search = new FlightSearch(sortBy, k, listener);
+        for (Flight flight : candidates) {
+            if (filter == null || filter.test(flight)) {
+                search.offer(flight);
+            }
+        }
+        return search.finish();
+    }
+
+    /**
+     * As {@link #topK(String, Predicate, FlightSearch.SortBy, int, Consumer)},
+     * but only over flights departing from one time up to another, which are
+     * all that is scanned.
+     */
+    public synchronized List<Flight> topK(String departure, LocalDateTime from, LocalDateTime to, Predicate<Flight> filter,
+                                          FlightSearch.SortBy sortBy, int k, Consumer<List<Flight>> listener) {
+        FlightSearch search = new FlightSearch(sortBy, k, listener);
+        for (Set<Flight> atTime : schedule.departureSlots(departure, from, to)) {
+            for (Flight flight : atTime) {
+                if (filter == null || filter.test(flight)) {
+                    search.offer(flight);
+                }
+            }
+        }
+        return search.finish();
+    }
+
+    public synchronized boolean contains(String flightNumber) {
+        return getFlightByNumber(flightNumber) != null;
+    }
+
+    public synchronized int size() {
+        return byInstance.size();
+    }
+
+    private static void index(Map<String, Set<Flight>> index, String key, Flight flight) {
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(flight);
+    }
+
+    private static void unindex(Map<String, Set<Flight>> index, String key, Flight flight) {
+        Set<Flight> flights = index.get(key);
+        if (flights != null && flights.remove(flight) && flights.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static List<Flight> lookup(Map<String, Set<Flight>> index, String key) {
+        Set<Flight> flights = index.get(key);
+        return flights == null ? List.of() : Collections.unmodifiableList(new ArrayList<>(flights));
+    }
+
+    private static String numberKey(String flightNumber) {
+        return flightNumber.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // "KQ100/2026-10-18T10:00", or just the number for a flight without a schedule
+    private static String instanceKey(String flightNumber, LocalDateTime departureTime) {
+        String number = numberKey(flightNumber);
+        return departureTime == null ? number : number + '/' + departureTime;
+    }
+
+    // Folded like the airport type-ahead, so "Zürich" picked there finds flights listed under "Zurich"
+    private static String placeKey(String place) {
+        return AirportIndex.fold(place);
+    }
+
+    // Place names cannot contain a line break, so it separates the two safely
+    private static String routeKey(String departure, String arrival) {
+        return placeKey(departure) + '\n' + placeKey(arrival);
+    }
+}
@@ -0,0 +1,277 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Locks flights for the time it takes to book a connecting itinerary.
+ *
+ * Flights map onto a fixed number of lock stripes by their flight number and
+ * departure, so bookings on unrelated flights rarely wait for each other and the
+ * manager never grows with the schedule. A set of flights is always locked in
+ * ascending stripe order, with a stripe shared by two legs taken once, so two
+ * itineraries over the same flights in opposite order cannot deadlock.
+ *
+ * Single-seat bookings do not need these locks; SeatInventory claims a seat
+ * atomically on its own. The locks keep two multi-leg bookings from
+ * interleaving, so each one either gets every leg or leaves no trace.
+ */
+public class FlightLockManager {
+    public static final int DEFAULT_STRIPES = 64;
+
+    /** One flight of an itinerary and the seat wanted on it. */
+    public static final class Leg {
+        private final String flightKey;
+        private final SeatInventory inventory;
+        private final String seatId;
+
+        public Leg(String flightKey, SeatInventory inventory, String seatId) {
+            if (flightKey == null || inventory == null || seatId == null) {
+                throw new IllegalArgumentException("Flight, inventory and seat are required");
+            }
+            this.flightKey = flightKey;
+            this.inventory = inventory;
+            this.seatId = seatId;
+        }
+
+        public String getFlightKey() { return flightKey; }
+        public SeatInventory getInventory() { return inventory; }
+        public String getSeatId() { return seatId; }
+    }
+
+    /** Locks held on a set of flights; closing it unlocks them all. */
+    public final class Lease implements AutoCloseable {
+        private final int[] stripeIndexes;
+        private boolean closed;
+
+        private Lease(int[] stripeIndexes) {
+            this.stripeIndexes = stripeIndexes;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (int i = stripeIndexes.length - 1; i >= 0; i--) {
+                stripes[stripeIndexes[i]].unlock();
+            }
+        }
+    }
+
+    /** Counters since the manager was created. */
+    public static final class Stats {
+        private final int stripes;
+        private final long acquisitions;
+        private final long contended;
+        private final long timeouts;
+        private final long totalWaitNanos;
+        private final long maxWaitNanos;
+
+        Stats(int stripes, long acquisitions, long contended, long timeouts, long totalWaitNanos, long maxWaitNanos) {
+            this.stripes = stripes;
+            this.acquisitions = acquisitions;
+            this.contended = contended;
+            this.timeouts = timeouts;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public int getStripes() { return stripes; }
+        /** Sets of flights locked successfully. */
+        public long getAcquisitions() { return acquisitions; }
+        /** Stripe locks that were not free on the first try. */
+        public long getContended() { return contended; }
+        /** Attempts that gave up when their timeout ran out. */
+        public long getTimeouts() { return timeouts; }
+        public long getTotalWaitNanos() { return totalWaitNanos; }
+        public long getMaxWaitNanos() { return maxWaitNanos; }
+
+        public double getAverageWaitMillis() {
+            long attempts = acquisitions + timeouts;
+            return attempts == 0 ? 0 : totalWaitNanos / 1_000_000.0 / attempts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("locks: %d acquired, %d contended, %d timed out, avg wait %.3f ms, max wait %.3f ms",
+                    acquisitions, contended, timeouts, getAverageWaitMillis(), maxWaitNanos / 1_000_000.0);
+        }
+    }
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public FlightLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /** @param stripes number of locks, rounded up to a power of two */
+    public FlightLockManager(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("Stripes must be positive: " + stripes);
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /** Lock key of one flight instance, e.g. "KQ100/2026-10-18T10:00"; just the number when it has no schedule. */
+    public static String key(String flightNumber, LocalDateTime departureTime) {
+        if (flightNumber == null || flightNumber.isBlank()) {
+            throw new IllegalArgumentException("Flight number is required");
+        }
+        return departureTime == null ? flightNumber : flightNumber + "/" + departureTime;
+    }
+
+    /**
+     * Locks all the given flights, waiting at most the given time in total.
+     *
+     * @return the lease to close when done, or null if the time ran out; no
+     *         lock is held then
+     */
+    public Lease tryLock(long timeout, TimeUnit unit, String... flightKeys) throws InterruptedException {
+        int[] indexes = stripesOf(flightKeys);
+        long start = System.nanoTime();
+        long deadline = start + unit.toNanos(timeout);
+        int locked = 0;
+        try {
+            for (; locked < indexes.length; locked++) {
+                ReentrantLock lock = stripes[indexes[locked]];
+                if (lock.tryLock()) {
+                    continue;
+                }
+                contended.increment();
+                if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    timeouts.increment();
+                    recordWait(start);
+                    return null;
+                }
+            }
+        } finally {
+            if (locked < indexes.length) {
+                unlock(indexes, locked);
+            }
+        }
+        acquisitions.increment();
+        recordWait(start);
+        return new Lease(indexes);
+    }
+
+    /** Locks all the given flights, waiting as long as it takes. */
+    public Lease lock(String... flightKeys) throws InterruptedException {
+        int[] indexes = stripesOf(flightKeys);
+        long start = System.nanoTime();
+        int locked = 0;
+        try {
+            for (; locked < indexes.length; locked++) {
+                ReentrantLock lock = stripes[indexes[locked]];
+                if (!lock.tryLock()) {
+                    contended.increment();
+                    lock.lockInterruptibly();
+                }
+            }
+        } finally {
+            if (locked < indexes.length) {
+                unlock(indexes, locked);
+            }
+        }
+        acquisitions.increment();
+        recordWait(start);
+        return new Lease(indexes);
+    }
+
+    /**
+     * Books one seat on every leg, or none of them.
+     *
+     * The legs' flights are locked together, then each seat is held in turn
+     * and only turned into a booking once all of them are held. If a seat is
+     * gone, or the locks cannot be had in time, every hold taken is released.
+     *
+     * @return true if all legs were booked
+     */
+    public boolean bookItinerary(List<Leg> legs, long timeout, TimeUnit unit) throws InterruptedException {
+        String[] keys = new String[legs.size()];
+        int[] ordinals = new int[legs.size()];
+        for (int i = 0; i < keys.length; i++) {
+            Leg leg = legs.get(i);
+            keys[i] = leg.flightKey;
+            ordinals[i] = leg.inventory.ordinal(leg.seatId);
+            if (ordinals[i] < 0) {
+                return false;
+            }
+        }
+        try (Lease lease = tryLock(timeout, unit, keys)) {
+            if (lease == null) {
+                return false;
+            }
+            int held = 0;
+            for (; held < ordinals.length; held++) {
+                if (!legs.get(held).inventory.hold(ordinals[held])) {
+                    break;
+                }
+            }
+            if (held < ordinals.length) {
+                for (int i = 0; i < held; i++) {
+                    legs.get(i).inventory.releaseHold(ordinals[i]);
+                }
+                return false;
+            }
+            for (int i = 0; i < ordinals.length; i++) {
+                legs.get(i).inventory.confirmHold(ordinals[i]);
+            }
+            return true;
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(stripes.length, acquisitions.sum(), contended.sum(), timeouts.sum(),
+                totalWaitNanos.sum(), maxWaitNanos.get());
+    }
+
+    // Distinct stripes of the keys in ascending order, the one order every caller locks in
+    private int[] stripesOf(String... flightKeys) {
+        if (flightKeys.length == 0) {
+            throw new IllegalArgumentException("At least one flight is required");
+        }
+        int[] indexes = new int[flightKeys.length];
+        for (int i = 0; i < flightKeys.length; i++) {
+            int h = flightKeys[i].hashCode();
+            indexes[i] = (h ^ (h >>> 16)) & mask;
+        }
+        Arrays.sort(indexes);
+        int distinct = 1;
+        for (int i = 1; i < indexes.length; i++) {
+            if (indexes[i] != indexes[distinct - 1]) {
+                indexes[distinct++] = indexes[i];
+            }
+        }
+        return distinct == indexes.length ? indexes : Arrays.copyOf(indexes, distinct);
+    }
+
+    private void unlock(int[] indexes, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    private void recordWait(long start) {
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+    }
+}
@@ -1,17 +1,16 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class FlightOptions {
-    private List<Flight> flights;
+    private FlightCatalog flights;
 
     public FlightOptions() {
         loadFlights();
     }
 
     private void loadFlights() {
-        flights = new ArrayList<>();
+        flights = new FlightCatalog();
         flights.add(new Flight("SA101", "Cape Town", "Johannesburg", 120.50));
         flights.add(new Flight("SA202", "Durban", "Cape Town", 99.99));
         flights.add(new Flight("SA303", "Johannesburg", "Durban", 150.75));
@@ -19,21 +18,20 @@ public class FlightOptions {
     }
 
     public List<Flight> getAllFlights() {
-        return flights;
+        return flights.getAvailableFlights();
     }
 
     public void displayAllFlights() {
         System.out.println("Available Flights:");
-        for (Flight flight : flights) {
+        for (Flight flight : flights.getAvailableFlights()) {
             flight.displayInfo();
         }
     }
 
     public Flight selectFlight(String flightNumber) {
-        for (Flight flight : flights) {
-            if (flight.getFlightNumber().equalsIgnoreCase(flightNumber)) {
-                return flight;
-            }
+        Flight flight = flights.getFlightByNumber(flightNumber);
+        if (flight != null) {
+            return flight;
         }
         System.out.println("Flight with number " + flightNumber + " not found.");
         return null;
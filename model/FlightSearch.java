@@ -0,0 +1,107 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * The best K flights of a scan, e.g. the 20 cheapest from Nairobi.
+ *
+ * Flights are offered one at a time to a heap that never holds more than K,
+ * its worst flight on top: a flight that does not beat it is rejected with
+ * one comparison, one that does replaces it in O(log K). Memory stays O(K)
+ * however many flights are scanned. Every {@value #PUBLISH_EVERY} flights the
+ * current best are handed to a listener if they changed, so a view can show
+ * the first results while the scan goes on.
+ */
+public class FlightSearch {
+    static final int PUBLISH_EVERY = 256;
+
+    /** What "best" means. Duration and departure skip flights without a schedule. */
+    public enum SortBy {
+        PRICE(Comparator.comparingDouble(Flight::getPrice)),
+        DURATION(Comparator.comparing(Flight::getDuration)),
+        DEPARTURE(Comparator.comparing(Flight::getDepartureTime));
+
+        private final Comparator<Flight> order;
+
+        SortBy(Comparator<Flight> order) {
+            // Flight number and then departure break ties, so equal flights always come out in the same order
+            this.order = order.thenComparing(Flight::getFlightNumber)
+                    .thenComparing(Flight::getDepartureTime, Comparator.nullsFirst(Comparator.naturalOrder()));
+        }
+
+        public Comparator<Flight> comparator() {
+            return order;
+        }
+
+        boolean accepts(Flight flight) {
+            return this == PRICE || flight.isScheduled();
+        }
+    }
+
+    private final SortBy sortBy;
+    private final int k;
+    private final Consumer<List<Flight>> listener;
+    private final PriorityQueue<Flight> worstFirst;
+    private int scanned;
+    private boolean changed;
+
+    public FlightSearch(SortBy sortBy, int k) {
+        this(sortBy, k, null);
+    }
+
+    /** @param listener given the best flights so far, best first, as the scan goes on; may be null */
+    public FlightSearch(SortBy sortBy, int k, Consumer<List<Flight>> listener) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("K must be positive: " + k);
+        }
+        this.sortBy = sortBy;
+        this.k = k;
+        this.listener = listener;
+        this.worstFirst = new PriorityQueue<>(k, sortBy.comparator().reversed());
+    }
+
+    public void offer(Flight flight) {
+        if (sortBy.accepts(flight)) {
+            if (worstFirst.size() < k) {
+                worstFirst.add(flight);
+                changed = true;
+            } else if (sortBy.comparator().compare(flight, worstFirst.peek()) < 0) {
+                worstFirst.poll();
+                worstFirst.add(flight);
+                changed = true;
+            }
+        }
+        if (++scanned % PUBLISH_EVERY == 0) {
+            publish();
+        }
+    }
+
+    /** Ends the scan: the best K flights, best first. The listener gets them too if they changed. */
+    public List<Flight> finish() {
+        publish();
+        return results();
+    }
+
+    /** Flights offered so far, accepted or not. */
+    public int getScannedCount() {
+        return scanned;
+    }
+
+    private void publish() {
+        if (changed && listener != null) {
+            listener.accept(results());
+        }
+        changed = false;
+    }
+
+    private List<Flight> results() {
+        List<Flight> best = new ArrayList<>(worstFirst);
+        best.sort(sortBy.comparator());
+        return Collections.unmodifiableList(best);
+    }
+}
@@ -4,16 +4,19 @@ public class Plane {
     private String model;
     private String registration;
     private int capacity;
+    private final CabinLayout cabinLayout;
 
     public Plane(String model, String registration, int capacity) {
         this.model = model;
         this.registration = registration;
         this.capacity = capacity;
+        this.cabinLayout = CabinLayout.forAircraft(model, capacity);
     }
 
     public String getModel() { return model; }
     public String getRegistration() { return registration; }
     public int getCapacity() { return capacity; }
+    public CabinLayout getCabinLayout() { return cabinLayout; }
 
     @Override
     public String toString() {
@@ -0,0 +1,110 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Scheduled flights by time, e.g. "flights from Nairobi between 08:00 and
+ * noon" or "arrivals into London in the next hour".
+ *
+ * Each origin keeps its departures and each destination its arrivals in a
+ * map sorted by time, and all departures and arrivals are kept across places
+ * as well. A time window is one sub-map, so a query costs O(log n + k) for k
+ * flights found. Flights without a schedule are not indexed, and flights are
+ * told apart by number and departure time as in {@link Flight#equals}, so the
+ * same number on another day is another entry. Not thread-safe; FlightCatalog
+ * keeps one under its own lock.
+ */
+public class ScheduleIndex {
+    private final Map<String, NavigableMap<LocalDateTime, Set<Flight>>> departuresByOrigin = new HashMap<>();
+    private final Map<String, NavigableMap<LocalDateTime, Set<Flight>>> arrivalsByDestination = new HashMap<>();
+    private final NavigableMap<LocalDateTime, Set<Flight>> departures = new TreeMap<>();
+    private final NavigableMap<LocalDateTime, Set<Flight>> arrivals = new TreeMap<>();
+
+    public void add(Flight flight) {
+        if (!flight.isScheduled()) {
+            return;
+        }
+        put(departures, flight.getDepartureTime(), flight);
+        put(arrivals, flight.getArrivalTime(), flight);
+        put(departuresByOrigin.computeIfAbsent(placeKey(flight.getDepartureLocation()), k -> new TreeMap<>()),
+                flight.getDepartureTime(), flight);
+        put(arrivalsByDestination.computeIfAbsent(placeKey(flight.getArrivalLocation()), k -> new TreeMap<>()),
+                flight.getArrivalTime(), flight);
+    }
+
+    public void remove(Flight flight) {
+        if (!flight.isScheduled()) {
+            return;
+        }
+        take(departures, flight.getDepartureTime(), flight);
+        take(arrivals, flight.getArrivalTime(), flight);
+        take(departuresByOrigin, placeKey(flight.getDepartureLocation()), flight.getDepartureTime(), flight);
+        take(arrivalsByDestination, placeKey(flight.getArrivalLocation()), flight.getArrivalTime(), flight);
+    }
+
+    /** Flights leaving the place (any place if null) from one time up to, not including, another; earliest first. */
+    public List<Flight> departingBetween(String origin, LocalDateTime from, LocalDateTime to) {
+        return window(origin == null ? departures : departuresByOrigin.get(placeKey(origin)), from, to);
+    }
+
+    /** Flights landing at the place (any place if null) from one time up to, not including, another; earliest first. */
+    public List<Flight> arrivingBetween(String destination, LocalDateTime from, LocalDateTime to) {
+        return window(destination == null ? arrivals : arrivalsByDestination.get(placeKey(destination)), from, to);
+    }
+
+    /** Departures of the place in the window as a live view, for scanning without a copy. */
+    Iterable<Set<Flight>> departureSlots(String origin, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Set<Flight>> times = origin == null ? departures : departuresByOrigin.get(placeKey(origin));
+        if (times == null || !from.isBefore(to)) {
+            return List.of();
+        }
+        return times.subMap(from, true, to, false).values();
+    }
+
+    private static List<Flight> window(NavigableMap<LocalDateTime, Set<Flight>> times, LocalDateTime from, LocalDateTime to) {
+        if (times == null || !from.isBefore(to)) {
+            return List.of();
+        }
+        List<Flight> flights = new ArrayList<>();
+        for (Set<Flight> atTime : times.subMap(from, true, to, false).values()) {
+            flights.addAll(atTime);
+        }
+        return Collections.unmodifiableList(flights);
+    }
+
+    private static void put(NavigableMap<LocalDateTime, Set<Flight>> times, LocalDateTime time, Flight flight) {
+        times.computeIfAbsent(time, t -> new LinkedHashSet<>()).add(flight);
+    }
+
+    private static void take(NavigableMap<LocalDateTime, Set<Flight>> times, LocalDateTime time, Flight flight) {
+        Set<Flight> atTime = times.get(time);
+        if (atTime != null && atTime.remove(flight) && atTime.isEmpty()) {
+            times.remove(time);
+        }
+    }
+
+    private static void take(Map<String, NavigableMap<LocalDateTime, Set<Flight>>> byPlace, String place,
+                             LocalDateTime time, Flight flight) {
+        NavigableMap<LocalDateTime, Set<Flight>> times = byPlace.get(place);
+        if (times != null) {
+            take(times, time, flight);
+            if (times.isEmpty()) {
+                byPlace.remove(place);
+            }
+        }
+    }
+
+    // Same keys as FlightCatalog's place indexes
+    private static String placeKey(String place) {
+        return AirportIndex.fold(place);
+    }
+}
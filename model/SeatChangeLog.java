@@ -0,0 +1,120 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recent seat changes of one SeatInventory, so a view can redraw only the
+ * seats that changed since it last looked.
+ *
+ * Every change gets the next version number and is written to a fixed-size
+ * ring buffer, overwriting the oldest entry. Writers never block: a slot is
+ * marked as being written, then gets its payload and finally its version,
+ * like a seqlock. A reader that finds a slot still being written stops there
+ * and picks the rest up on its next call. A reader that has fallen further
+ * behind than the buffer holds is told to reload the whole map
+ * ({@link Changes#isComplete()} is false).
+ */
+public class SeatChangeLog {
+    public static final int DEFAULT_CAPACITY = 1024;
+    private static final long WRITING = -1;
+
+    /** Changes after one version up to another, oldest first. */
+    public static final class Changes {
+        private final long fromVersion;
+        private final long toVersion;
+        private final int[] ordinals;
+        private final byte[] states;
+        private final boolean complete;
+
+        private Changes(long fromVersion, long toVersion, int[] ordinals, byte[] states, boolean complete) {
+            this.fromVersion = fromVersion;
+            this.toVersion = toVersion;
+            this.ordinals = ordinals;
+            this.states = states;
+            this.complete = complete;
+        }
+
+        public long getFromVersion() { return fromVersion; }
+        /** Version to ask from next time. */
+        public long getToVersion() { return toVersion; }
+        public int size() { return ordinals.length; }
+        public int getOrdinal(int i) { return ordinals[i]; }
+        public SeatInventory.SeatState getState(int i) { return SeatInventory.SeatState.of(states[i]); }
+        public boolean isEmpty() { return ordinals.length == 0; }
+
+        /** False when changes were lost to the ring buffer; reload the whole map then. */
+        public boolean isComplete() { return complete; }
+    }
+
+    private final int mask;
+    // Slot i holds the change with version v where (v & mask) == i
+    private final AtomicLongArray slotVersions;
+    // ordinal << 8 | state
+    private final AtomicLongArray slotChanges;
+    private final AtomicLong version = new AtomicLong();
+
+    public SeatChangeLog() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity changes kept, rounded up to a power of two */
+    public SeatChangeLog(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.slotVersions = new AtomicLongArray(size);
+        this.slotChanges = new AtomicLongArray(size);
+    }
+
+    /** Version of the latest change; 0 before any. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    void record(int ordinal, int state) {
+        long v = version.incrementAndGet();
+        int slot = (int) (v & mask);
+        slotVersions.set(slot, WRITING);
+        slotChanges.set(slot, (long) ordinal << 8 | state);
+        slotVersions.set(slot, v);
+    }
+
+    /** Changes after the given version, as far as they are fully written. */
+    public Changes changesSince(long since) {
+        long latest = version.get();
+        if (since > latest || since < 0) {
+            return new Changes(since, latest, new int[0], new byte[0], false);
+        }
+        if (latest - since > mask + 1) {
+            return new Changes(since, latest, new int[0], new byte[0], false);
+        }
+        int count = (int) (latest - since);
+        int[] ordinals = new int[count];
+        byte[] states = new byte[count];
+        int read = 0;
+        for (long v = since + 1; v <= latest; v++) {
+            int slot = (int) (v & mask);
+            long slotVersion = slotVersions.get(slot);
+            long change = slotChanges.get(slot);
+            if (slotVersion < v) {
+                break; // still being written (or not yet started); the next call picks it up
+            }
+            if (slotVersion > v || slotVersions.get(slot) != v) {
+                // Overwritten by a newer change while we were reading
+                return new Changes(since, latest, new int[0], new byte[0], false);
+            }
+            ordinals[read] = (int) (change >>> 8);
+            states[read] = (byte) (change & 0xFF);
+            read++;
+        }
+        if (read < count) {
+            ordinals = Arrays.copyOf(ordinals, read);
+            states = Arrays.copyOf(states, read);
+        }
+        return new Changes(since, since + read, ordinals, states, true);
+    }
+}
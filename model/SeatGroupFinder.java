@@ -0,0 +1,221 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * Finds free seats together for a party, straight from the SeatInventory bitmap.
+ *
+ * Each row is read as a mask of free letters ({@link SeatInventory#freeMask}),
+ * and the start positions of every free run of N seats are found with N - 1
+ * shift-and-AND steps on that mask, the aisle mask deciding whether a run may
+ * cross an aisle. A whole wide-body cabin is searched with a few hundred
+ * word operations and no seat-ID Strings.
+ *
+ * Blocks are ranked by arrangement (same row, then across the aisle, then
+ * split over two consecutive rows with the halves lined up), then by whether
+ * they meet the window/aisle preference, then front to back.
+ */
+public final class SeatGroupFinder {
+    // A block found by a search can be taken before it is claimed; search again this often
+    private static final int MAX_CLAIM_ATTEMPTS = 8;
+
+    /** How the seats of a block sit relative to each other, best first. */
+    public enum Arrangement { SAME_ROW, ACROSS_AISLE, SPLIT_ROWS }
+
+    /** Seats found together. Nothing is reserved until the block is booked. */
+    public static final class SeatBlock {
+        private final SeatInventory inventory;
+        private final int[] ordinals;
+        private final Arrangement arrangement;
+
+        private SeatBlock(SeatInventory inventory, int[] ordinals, Arrangement arrangement) {
+            this.inventory = inventory;
+            this.ordinals = ordinals;
+            this.arrangement = arrangement;
+        }
+
+        public Arrangement getArrangement() { return arrangement; }
+        public int size() { return ordinals.length; }
+        public int[] getOrdinals() { return ordinals.clone(); }
+
+        public List<String> getSeatIds() {
+            List<String> seatIds = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                seatIds.add(inventory.seatId(ordinal));
+            }
+            return Collections.unmodifiableList(seatIds);
+        }
+
+        @Override
+        public String toString() {
+            return String.join(", ", getSeatIds()) + " (" + arrangement + ")";
+        }
+    }
+
+    private SeatGroupFinder() {
+    }
+
+    public static SeatBlock findAdjacentSeats(Flight flight, int n, SeatPreference... preferences) {
+        return findAdjacentSeats(flight.getSeatInventory(), n, preferences);
+    }
+
+    /**
+     * Best block of n free seats together.
+     *
+     * @return the block, or null if the cabin has no n free seats together
+     */
+    public static SeatBlock findAdjacentSeats(SeatInventory inventory, int n, SeatPreference... preferences) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("Party size must be positive: " + n);
+        }
+        EnumSet<SeatPreference> prefs = EnumSet.noneOf(SeatPreference.class);
+        prefs.addAll(Arrays.asList(preferences));
+
+        CabinLayout layout = inventory.getLayout();
+        int rows = layout.getRows();
+        long aisles = layout.getAisleMask();
+        long wanted = (prefs.contains(SeatPreference.WINDOW) ? layout.getWindowMask() : 0)
+                | (prefs.contains(SeatPreference.AISLE) ? layout.getAisleSeatMask() : 0);
+        boolean avoidExits = prefs.contains(SeatPreference.AVOID_EXIT_ROWS);
+
+        long[] free = new long[rows + 1];
+        for (int row = 1; row <= rows; row++) {
+            free[row] = avoidExits && layout.isExitRow(row) ? 0 : inventory.freeMask(row);
+        }
+
+        Search search = new Search(inventory, wanted);
+        if (n <= layout.getSeatsPerRow()) {
+            for (int row = 1; row <= rows && !search.isPerfect(); row++) {
+                long starts = runStarts(free[row], n, aisles);
+                Arrangement arrangement = Arrangement.SAME_ROW;
+                if (starts == 0 && !prefs.contains(SeatPreference.NO_AISLE_SPLIT)) {
+                    starts = runStarts(free[row], n, 0);
+                    arrangement = Arrangement.ACROSS_AISLE;
+                }
+                if (starts != 0) {
+                    int start = pick(starts, n, wanted);
+                    search.offer(arrangement, row, start, n, 0, 0);
+                }
+            }
+        }
+        if (search.best == null && n > 1 && !prefs.contains(SeatPreference.NO_ROW_SPLIT)) {
+            findSplit(search, free, n, aisles);
+            if (search.best == null && !prefs.contains(SeatPreference.NO_AISLE_SPLIT)) {
+                findSplit(search, free, n, 0);
+            }
+        }
+        return search.best;
+    }
+
+    /**
+     * Finds a block and books all of it atomically, searching again if another
+     * booking takes one of its seats first.
+     *
+     * @return the booked block, or null if no block could be booked
+     */
+    public static SeatBlock bookAdjacentSeats(SeatInventory inventory, int n, SeatPreference... preferences) {
+        for (int attempt = 0; attempt < MAX_CLAIM_ATTEMPTS; attempt++) {
+            SeatBlock block = findAdjacentSeats(inventory, n, preferences);
+            if (block == null) {
+                return null;
+            }
+            if (inventory.bookAll(block.ordinals)) {
+                return block;
+            }
+        }
+        return null;
+    }
+
+    // Larger half in the front row; the smaller half must sit within its span
+    private static void findSplit(Search search, long[] free, int n, long boundary) {
+        int front = (n + 1) / 2;
+        int back = n / 2;
+        long alignment = (1L << (front - back + 1)) - 1;
+        for (int row = 1; row + 1 < free.length && !search.isPerfectFor(Arrangement.SPLIT_ROWS); row++) {
+            long frontStarts = runStarts(free[row], front, boundary);
+            long backStarts = frontStarts == 0 ? 0 : runStarts(free[row + 1], back, boundary);
+            for (long s = frontStarts; s != 0 && backStarts != 0; s &= s - 1) {
+                int start = Long.numberOfTrailingZeros(s);
+                long aligned = (backStarts >>> start) & alignment;
+                if (aligned != 0) {
+                    int backStart = start + Long.numberOfTrailingZeros(aligned);
+                    search.offer(Arrangement.SPLIT_ROWS, row, start, front, backStart, back);
+                    if (search.isPerfectFor(Arrangement.SPLIT_ROWS)) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    // Bit s is set when seats s .. s + n - 1 are all free and no boundary aisle runs between them
+    private static long runStarts(long free, int n, long boundary) {
+        long starts = free;
+        for (int i = 1; i < n && starts != 0; i++) {
+            starts &= (free >>> i) & ~(boundary >>> (i - 1));
+        }
+        return starts;
+    }
+
+    // Leftmost start whose block meets the preference, else the leftmost start
+    private static int pick(long starts, int n, long wanted) {
+        if (wanted != 0) {
+            for (long s = starts; s != 0; s &= s - 1) {
+                int start = Long.numberOfTrailingZeros(s);
+                if ((blockMask(start, n) & wanted) != 0) {
+                    return start;
+                }
+            }
+        }
+        return Long.numberOfTrailingZeros(starts);
+    }
+
+    private static long blockMask(int start, int length) {
+        return ((1L << length) - 1) << start;
+    }
+
+    // Best block so far; rows are scanned front to back, so the first of equal rank wins
+    private static final class Search {
+        private final SeatInventory inventory;
+        private final long wanted;
+        private SeatBlock best;
+        private int bestRank = Integer.MAX_VALUE;
+
+        Search(SeatInventory inventory, long wanted) {
+            this.inventory = inventory;
+            this.wanted = wanted;
+        }
+
+        // Seats start .. start + length - 1 of row, plus backLength seats of the next row
+        void offer(Arrangement arrangement, int row, int start, int length, int backStart, int backLength) {
+            long seats = blockMask(start, length) | (backLength == 0 ? 0 : blockMask(backStart, backLength));
+            int rank = arrangement.ordinal() * 2 + (wanted == 0 || (seats & wanted) != 0 ? 0 : 1);
+            if (rank >= bestRank) {
+                return;
+            }
+            CabinLayout layout = inventory.getLayout();
+            int[] ordinals = new int[length + backLength];
+            for (int i = 0; i < length; i++) {
+                ordinals[i] = layout.ordinal(row, start + i);
+            }
+            for (int i = 0; i < backLength; i++) {
+                ordinals[length + i] = layout.ordinal(row + 1, backStart + i);
+            }
+            best = new SeatBlock(inventory, ordinals, arrangement);
+            bestRank = rank;
+        }
+
+        // Nothing later in the scan can beat a same-row block that meets the preference
+        boolean isPerfect() {
+            return isPerfectFor(Arrangement.SAME_ROW);
+        }
+
+        boolean isPerfectFor(Arrangement arrangement) {
+            return bestRank <= arrangement.ordinal() * 2;
+        }
+    }
+}
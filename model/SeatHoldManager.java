@@ -0,0 +1,136 @@
+package model;
+
+import java.time.Duration;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Temporary seat holds for the time between picking a seat and paying.
+ * While a seat is held nobody else can book it, so a passenger who is
+ * still entering payment details does not lose the seat they picked.
+ *
+ * {@link #hold} marks the seat as held in its SeatInventory and returns a
+ * token. The token is either confirmed into a booking or released; if
+ * neither happens before it expires the seat is freed automatically. All
+ * pending expiries share one {@link TimingWheel} driven by a single daemon
+ * thread, so the cost per hold is an O(1) insert rather than a timer.
+ */
+public class SeatHoldManager implements AutoCloseable {
+    private static final long TICK_MILLIS = 10;
+
+    /** A hold on one seat. Exactly one of confirm, release or expiry wins. */
+    public static final class SeatHold {
+        private static final int ACTIVE = 0, CONFIRMED = 1, RELEASED = 2, EXPIRED = 3;
+
+        private final long id;
+        private final SeatInventory inventory;
+        private final int ordinal;
+        private final long expiresAtMillis;
+        private final AtomicInteger state = new AtomicInteger(ACTIVE);
+        private volatile TimingWheel.Timeout<SeatHold> timeout;
+
+        private SeatHold(long id, SeatInventory inventory, int ordinal, long expiresAtMillis) {
+            this.id = id;
+            this.inventory = inventory;
+            this.ordinal = ordinal;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public long getId() { return id; }
+        public SeatInventory getInventory() { return inventory; }
+        public String getSeatId() { return inventory.seatId(ordinal); }
+        public long getExpiresAtMillis() { return expiresAtMillis; }
+        public boolean isActive() { return state.get() == ACTIVE; }
+        public boolean isExpired() { return state.get() == EXPIRED; }
+
+        private boolean finish(int outcome) {
+            return state.compareAndSet(ACTIVE, outcome);
+        }
+    }
+
+    private final TimingWheel<SeatHold> wheel;
+    private final ScheduledExecutorService ticker;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final CopyOnWriteArrayList<Consumer<SeatHold>> expiryListeners = new CopyOnWriteArrayList<>();
+
+    public SeatHoldManager() {
+        this.wheel = new TimingWheel<>(TICK_MILLIS, TimeUnit.MILLISECONDS, this::expire);
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "seat-hold-expiry");
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleAtFixedRate(() -> wheel.advance(System.nanoTime()),
+                TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Holds a free seat for the given time.
+     *
+     * @return the hold, or null if the seat is not on the layout, booked or already held
+     */
+    public SeatHold hold(SeatInventory inventory, String seatId, Duration ttl) {
+        int ordinal = inventory.ordinal(seatId);
+        if (ordinal < 0 || !inventory.hold(ordinal)) {
+            return null;
+        }
+        SeatHold hold = new SeatHold(nextId.getAndIncrement(), inventory, ordinal,
+                System.currentTimeMillis() + ttl.toMillis());
+        hold.timeout = wheel.schedule(hold, ttl.toMillis(), TimeUnit.MILLISECONDS);
+        return hold;
+    }
+
+    /** Books the held seat. False if the hold already expired or was released. */
+    public boolean confirm(SeatHold hold) {
+        if (!hold.finish(SeatHold.CONFIRMED)) {
+            return false;
+        }
+        cancelTimeout(hold);
+        return hold.inventory.confirmHold(hold.ordinal);
+    }
+
+    /** Frees the seat early, e.g. when payment is cancelled. */
+    public boolean release(SeatHold hold) {
+        if (!hold.finish(SeatHold.RELEASED)) {
+            return false;
+        }
+        cancelTimeout(hold);
+        return hold.inventory.releaseHold(hold.ordinal);
+    }
+
+    /** Called on the expiry thread for each hold that times out, after its seat is freed. */
+    public void addExpiryListener(Consumer<SeatHold> listener) {
+        expiryListeners.add(listener);
+    }
+
+    public int getActiveHoldCount() {
+        return wheel.size();
+    }
+
+    private void cancelTimeout(SeatHold hold) {
+        TimingWheel.Timeout<SeatHold> timeout = hold.timeout;
+        if (timeout != null) {
+            wheel.cancel(timeout);
+        }
+    }
+
+    // Runs on the expiry thread
+    private void expire(SeatHold hold) {
+        if (hold.finish(SeatHold.EXPIRED)) {
+            hold.inventory.releaseHold(hold.ordinal);
+            for (Consumer<SeatHold> listener : expiryListeners) {
+                listener.accept(hold);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        ticker.shutdownNow();
+    }
+}
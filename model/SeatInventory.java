@@ -0,0 +1,559 @@
+package model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Booked/held/free state of every seat on a flight, two bits per seat.
+ *
+ * Seats are addressed by their {@link CabinLayout} ordinal, so booking,
+ * releasing and checking a seat is a single bit operation with no String
+ * hashing or boxing, and the remaining-seat count is kept up to date as
+ * seats change. The String methods parse the seat ID in place and are
+ * there for callers that still work with seat IDs. Seats the layout blocks
+ * are never free.
+ *
+ * All operations are thread-safe without locks: a seat changes state by a
+ * compare-and-set on the 32-seat word that holds it, so when several threads
+ * book the same seat exactly one of them gets true. A CAS that fails because
+ * a neighbouring seat in the same word changed is retried and counted in
+ * {@link #contentionCount()}.
+ *
+ * A held seat (see {@link SeatHoldManager}) is neither free nor booked: it
+ * cannot be booked or held by anyone else until the hold is confirmed or
+ * released.
+ *
+ * Once something watches the inventory, every change is recorded with a
+ * version number in a {@link SeatChangeLog}, so a seat map can ask what
+ * changed since it last drew instead of re-reading every seat. Flights
+ * nobody looks at never allocate the log.
+ *
+ * An overbooking margin lets a full flight sell a few more places than it
+ * has seats. Those passengers have no seat in the bitmap; {@link Waitlist}
+ * seats them first when a booking is cancelled.
+ */
+public class SeatInventory {
+    /** State of a seat, as reported by {@link #getState(int)} and the change log. */
+    public enum SeatState {
+        FREE, BOOKED, HELD, BLOCKED;
+
+        private static final SeatState[] BY_CODE = values();
+
+        static SeatState of(int code) {
+            return BY_CODE[code];
+        }
+    }
+
+    private static final int FREE = 0;
+    private static final int BOOKED = 1;
+    private static final int HELD = 2;
+    private static final int BLOCKED = 3;
+    private static final int STATE_MASK = 3;
+    // Low bit of every seat's pair
+    private static final long LOW_BITS = 0x5555_5555_5555_5555L;
+
+    private final CabinLayout layout;
+    // Seat o lives in word o >>> 5 at bits 2 * (o & 31)
+    private final AtomicLongArray words;
+    private final AtomicInteger bookedCount = new AtomicInteger();
+    private final AtomicInteger heldCount = new AtomicInteger();
+    private final AtomicInteger soldWithoutSeat = new AtomicInteger();
+    private volatile int overbookingMargin = Integer.getInteger("traveller.seats.overbookingMargin", 0);
+    private final LongAdder contention = new LongAdder();
+    // Created by the first getVersion(); null means nobody is watching
+    private volatile SeatChangeLog changes;
+
+    public SeatInventory(CabinLayout layout) {
+        this.layout = layout;
+        this.words = new AtomicLongArray((capacity() + 31) >>> 5);
+        for (int ordinal = 0; ordinal < capacity(); ordinal++) {
+            if (layout.isBlocked(ordinal)) {
+                transition(ordinal, FREE, BLOCKED);
+            }
+        }
+    }
+
+    public CabinLayout getLayout() {
+        return layout;
+    }
+
+    /** Every seat on the layout, blocked ones included. */
+    public int capacity() {
+        return layout.getSeatCount();
+    }
+
+    public int bookedCount() {
+        return bookedCount.get();
+    }
+
+    public int heldCount() {
+        return heldCount.get();
+    }
+
+    /** Seats that can still be booked or held right now. */
+    public int remaining() {
+        return capacity() - layout.getBlockedCount() - bookedCount.get() - heldCount.get();
+    }
+
+    // ========== Overbooking ==========
+
+    public int getOverbookingMargin() {
+        return overbookingMargin;
+    }
+
+    /** Places that may be sold beyond the seats; lowering it does not unsell anyone. */
+    public void setOverbookingMargin(int overbookingMargin) {
+        if (overbookingMargin < 0) {
+            throw new IllegalArgumentException("Overbooking margin cannot be negative: " + overbookingMargin);
+        }
+        this.overbookingMargin = overbookingMargin;
+    }
+
+    /** Places sold beyond the seats that are still waiting for a seat. */
+    public int soldWithoutSeatCount() {
+        return soldWithoutSeat.get();
+    }
+
+    /** Sells a place with no seat if every seat is taken and the overbooking margin allows it. */
+    public boolean sellWithoutSeat() {
+        if (remaining() > 0) {
+            return false;
+        }
+        int current;
+        do {
+            current = soldWithoutSeat.get();
+            if (current >= overbookingMargin) {
+                return false;
+            }
+        } while (!soldWithoutSeat.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    public boolean cancelWithoutSeat() {
+        int current;
+        do {
+            current = soldWithoutSeat.get();
+            if (current == 0) {
+                return false;
+            }
+        } while (!soldWithoutSeat.compareAndSet(current, current - 1));
+        return true;
+    }
+
+    /** Books a free seat for a passenger sold without one; false if there is none or the seat is taken. */
+    public boolean assignWithoutSeat(int ordinal) {
+        if (!cancelWithoutSeat()) {
+            return false;
+        }
+        if (book(ordinal)) {
+            return true;
+        }
+        soldWithoutSeat.incrementAndGet();
+        return false;
+    }
+
+    // ========== Change feed ==========
+
+    /**
+     * Increases with every seat change; read it before drawing the whole map.
+     * The first call starts the change log: changes made before it were not
+     * recorded, but a map drawn after it already shows them.
+     */
+    public long getVersion() {
+        return changeLog().getVersion();
+    }
+
+    /** Seats changed after the given version; see {@link SeatChangeLog#changesSince}. */
+    public SeatChangeLog.Changes changesSince(long version) {
+        return changeLog().changesSince(version);
+    }
+
+    private SeatChangeLog changeLog() {
+        SeatChangeLog log = changes;
+        if (log == null) {
+            synchronized (this) {
+                log = changes;
+                if (log == null) {
+                    changes = log = new SeatChangeLog();
+                }
+            }
+        }
+        return log;
+    }
+
+    // Called after the CAS, so a log created concurrently has either the change or a map drawn after it
+    private void recordChange(int ordinal, int state) {
+        SeatChangeLog log = changes;
+        if (log != null) {
+            log.record(ordinal, state);
+        }
+    }
+
+    /** Number of CAS retries caused by concurrent changes to seats sharing a word. */
+    public long contentionCount() {
+        return contention.sum();
+    }
+
+    // ========== Ordinals ==========
+
+    /** Ordinal for a 1-based row and 0-based letter index, or -1 if outside the layout. */
+    public int ordinal(int row, int letter) {
+        return layout.ordinal(row, letter);
+    }
+
+    /** Parses a seat ID like "12C" without allocating; -1 if it is malformed or not on this layout. */
+    public int ordinal(String seatId) {
+        return layout.ordinal(seatId);
+    }
+
+    public String seatId(int ordinal) {
+        checkOrdinal(ordinal);
+        return layout.seatId(ordinal);
+    }
+
+    // ========== State transitions ==========
+
+    public boolean isBooked(int ordinal) {
+        return state(ordinal) == BOOKED;
+    }
+
+    public boolean isHeld(int ordinal) {
+        return state(ordinal) == HELD;
+    }
+
+    public boolean isBlocked(int ordinal) {
+        return state(ordinal) == BLOCKED;
+    }
+
+    /** True if the seat can be booked or held right now. */
+    public boolean isFree(int ordinal) {
+        return state(ordinal) == FREE;
+    }
+
+    public SeatState getState(int ordinal) {
+        return SeatState.of(state(ordinal));
+    }
+
+    /** @return true for exactly one caller when several race to book a free seat */
+    public boolean book(int ordinal) {
+        if (transition(ordinal, FREE, BOOKED)) {
+            bookedCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /** @return true if the seat was booked and is now free */
+    public boolean unbook(int ordinal) {
+        if (transition(ordinal, BOOKED, FREE)) {
+            bookedCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /** @return true for exactly one caller when several race to hold (or book) a free seat */
+    public boolean hold(int ordinal) {
+        if (transition(ordinal, FREE, HELD)) {
+            heldCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /** Turns a held seat into a booked one; false if it is not held. */
+    public boolean confirmHold(int ordinal) {
+        if (transition(ordinal, HELD, BOOKED)) {
+            heldCount.decrementAndGet();
+            bookedCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /** Frees a held seat; false if it is not held. */
+    public boolean releaseHold(int ordinal) {
+        if (transition(ordinal, HELD, FREE)) {
+            heldCount.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Books all the given seats or none of them, e.g. a party sitting together.
+     *
+     * Seats sharing a word are claimed with a single CAS. The words are first
+     * moved to held in ascending order and only then to booked, so other
+     * callers never see part of the group booked: until the claim completes
+     * the group's seats are merely unavailable. If any seat is taken the seats
+     * already held are released and false is returned.
+     */
+    public boolean bookAll(int... ordinals) {
+        int[] sorted = ordinals.clone();
+        Arrays.sort(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            checkOrdinal(sorted[i]);
+            if (i > 0 && sorted[i] == sorted[i - 1]) {
+                throw new IllegalArgumentException("Seat " + seatId(sorted[i]) + " listed twice");
+            }
+        }
+        int claimed = 0;
+        while (claimed < sorted.length) {
+            int end = wordEnd(sorted, claimed);
+            if (!transitionAll(sorted[claimed] >>> 5, seatBits(sorted, claimed, end), FREE, HELD)) {
+                for (int i = 0; i < claimed; i = wordEnd(sorted, i)) {
+                    transitionAll(sorted[i] >>> 5, seatBits(sorted, i, wordEnd(sorted, i)), HELD, FREE);
+                }
+                return false;
+            }
+            claimed = end;
+        }
+        for (int i = 0; i < sorted.length; i = wordEnd(sorted, i)) {
+            transitionAll(sorted[i] >>> 5, seatBits(sorted, i, wordEnd(sorted, i)), HELD, BOOKED);
+        }
+        bookedCount.addAndGet(sorted.length);
+        return true;
+    }
+
+    /**
+     * Free seats of a 1-based row as a bit mask: bit i is set when letter i is
+     * free. Each word of the bitmap is turned into free bits with a couple of
+     * shifts and a {@link Long#compress}, so a row costs one or two reads.
+     * This is a snapshot; a seat can still be taken before it is claimed.
+     */
+    public long freeMask(int row) {
+        int seatsPerRow = layout.getSeatsPerRow();
+        if (row < 1 || row > layout.getRows()) {
+            throw new IndexOutOfBoundsException("Row " + row + " outside 1.." + layout.getRows());
+        }
+        int from = (row - 1) * seatsPerRow;
+        long mask = 0;
+        for (int done = 0; done < seatsPerRow; ) {
+            int ordinal = from + done;
+            long word = words.get(ordinal >>> 5);
+            // A seat is free when both bits of its pair are clear
+            long free = Long.compress(~(word | (word >>> 1)) & LOW_BITS, LOW_BITS) >>> (ordinal & 31);
+            int take = Math.min(32 - (ordinal & 31), seatsPerRow - done);
+            mask |= (free & ((1L << take) - 1)) << done;
+            done += take;
+        }
+        return mask;
+    }
+
+    // ========== Snapshots ==========
+
+    /** Number of 64-bit words in the bitmap; see {@link #toWords()}. */
+    public int wordCount() {
+        return words.length();
+    }
+
+    /** Copy of the bitmap for checkpointing. Each word is read atomically. */
+    public long[] toWords() {
+        long[] copy = new long[words.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = words.get(i);
+        }
+        return copy;
+    }
+
+    /**
+     * Replaces every seat's state with a checkpoint taken by {@link #toWords()}.
+     * Held seats come back free, since the holds did not survive. Each seat
+     * that changes is recorded in the change log.
+     *
+     * @throws IllegalArgumentException if the checkpoint does not fit this layout
+     */
+    public void restore(long[] snapshot) {
+        if (snapshot.length != words.length()) {
+            throw new IllegalArgumentException("Snapshot has " + snapshot.length + " words, layout " + layout + " needs " + words.length());
+        }
+        for (int ordinal = 0; ordinal < capacity(); ordinal++) {
+            int state = (int) (snapshot[ordinal >>> 5] >>> ((ordinal & 31) << 1)) & STATE_MASK;
+            if ((state == BLOCKED) != layout.isBlocked(ordinal)) {
+                throw new IllegalArgumentException("Snapshot does not match the blocked seats of " + layout);
+            }
+        }
+        int booked = 0;
+        for (int word = 0; word < snapshot.length; word++) {
+            long low = snapshot[word] & LOW_BITS;
+            long high = (snapshot[word] >>> 1) & LOW_BITS;
+            // Pairs 10 (held) become 00 (free); 01 (booked) and 11 (blocked) stay
+            long restored = snapshot[word] & ~((high & ~low) * STATE_MASK);
+            booked += Long.bitCount(low & ~high);
+            long previous = words.getAndSet(word, restored);
+            for (long changed = (previous ^ restored) & (LOW_BITS | LOW_BITS << 1); changed != 0; ) {
+                int pair = Long.numberOfTrailingZeros(changed) >>> 1;
+                recordChange((word << 5) + pair, (int) (restored >>> (pair << 1)) & STATE_MASK);
+                changed &= ~((long) STATE_MASK << (pair << 1));
+            }
+        }
+        bookedCount.set(booked);
+        heldCount.set(0);
+    }
+
+    // Index just past the run of sorted ordinals that share a word with sorted[from]
+    private static int wordEnd(int[] sorted, int from) {
+        int word = sorted[from] >>> 5;
+        int end = from + 1;
+        while (end < sorted.length && sorted[end] >>> 5 == word) {
+            end++;
+        }
+        return end;
+    }
+
+    // Low bit of each seat's pair, for sorted[from, end) which all share one word
+    private static long seatBits(int[] sorted, int from, int end) {
+        long bits = 0;
+        for (int i = from; i < end; i++) {
+            bits |= 1L << ((sorted[i] & 31) << 1);
+        }
+        return bits;
+    }
+
+    // Moves every seat in bits from one state to another in a single CAS, or none of them
+    private boolean transitionAll(int word, long bits, int from, int to) {
+        long pairs = bits * STATE_MASK;
+        long current = words.get(word);
+        while ((current & pairs) == bits * from) {
+            long next = (current & ~pairs) | bits * to;
+            long witness = words.compareAndExchange(word, current, next);
+            if (witness == current) {
+                for (long seat = bits; seat != 0; seat &= seat - 1) {
+                    recordChange((word << 5) + (Long.numberOfTrailingZeros(seat) >>> 1), to);
+                }
+                return true;
+            }
+            contention.increment();
+            current = witness;
+        }
+        return false;
+    }
+
+    private int state(int ordinal) {
+        checkOrdinal(ordinal);
+        return (int) (words.get(ordinal >>> 5) >>> ((ordinal & 31) << 1)) & STATE_MASK;
+    }
+
+    private boolean transition(int ordinal, int from, int to) {
+        checkOrdinal(ordinal);
+        int word = ordinal >>> 5;
+        int shift = (ordinal & 31) << 1;
+        long clear = ~((long) STATE_MASK << shift);
+        long current = words.get(word);
+        while ((int) (current >>> shift & STATE_MASK) == from) {
+            long next = (current & clear) | ((long) to << shift);
+            long witness = words.compareAndExchange(word, current, next);
+            if (witness == current) {
+                recordChange(ordinal, to);
+                return true;
+            }
+            contention.increment();
+            current = witness;
+        }
+        return false;
+    }
+
+    // ========== String adapters ==========
+
+    public boolean isBooked(String seatId) {
+        int ordinal = ordinal(seatId);
+        return ordinal >= 0 && isBooked(ordinal);
+    }
+
+    public boolean isHeld(String seatId) {
+        int ordinal = ordinal(seatId);
+        return ordinal >= 0 && isHeld(ordinal);
+    }
+
+    /** @return true if the seat exists on this layout, was free and is now booked */
+    public boolean book(String seatId) {
+        int ordinal = ordinal(seatId);
+        return ordinal >= 0 && book(ordinal);
+    }
+
+    public boolean unbook(String seatId) {
+        int ordinal = ordinal(seatId);
+        return ordinal >= 0 && unbook(ordinal);
+    }
+
+    /**
+     * Read-only live view of the booked seat IDs. contains() goes straight to
+     * the bitmap; iterating builds the IDs on the fly.
+     */
+    public Set<String> bookedSeatIds() {
+        return seatIdsIn(BOOKED, bookedCount);
+    }
+
+    /** Read-only live view of the held seat IDs, like {@link #bookedSeatIds()}. */
+    public Set<String> heldSeatIds() {
+        return seatIdsIn(HELD, heldCount);
+    }
+
+    private Set<String> seatIdsIn(int wanted, AtomicInteger count) {
+        return new AbstractSet<String>() {
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof String)) {
+                    return false;
+                }
+                int ordinal = ordinal((String) o);
+                return ordinal >= 0 && state(ordinal) == wanted;
+            }
+
+            @Override
+            public int size() {
+                return count.get();
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int next = nextInState(0, wanted);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        String seatId = seatId(next);
+                        next = nextInState(next + 1, wanted);
+                        return seatId;
+                    }
+                };
+            }
+        };
+    }
+
+    // First ordinal at or after from in the wanted state, or -1
+    private int nextInState(int from, int wanted) {
+        int capacity = capacity();
+        for (int ordinal = from; ordinal < capacity; ordinal++) {
+            if ((ordinal & 31) == 0 && words.get(ordinal >>> 5) == 0) {
+                ordinal += 31; // the whole word is free
+                continue;
+            }
+            if (state(ordinal) == wanted) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
+    private void checkOrdinal(int ordinal) {
+        if (ordinal < 0 || ordinal >= capacity()) {
+            throw new IndexOutOfBoundsException("Seat ordinal " + ordinal + " outside 0.." + (capacity() - 1));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package model;
+
+/** What a party asks for when seats are picked for them together; see {@link SeatGroupFinder}. */
+public enum SeatPreference {
+    /** Prefer a block that includes a window seat. */
+    WINDOW,
+    /** Prefer a block that includes an aisle seat. */
+    AISLE,
+    /** Never let the aisle run through the block. */
+    NO_AISLE_SPLIT,
+    /** Never split the party over two rows. */
+    NO_ROW_SPLIT,
+    /** Skip exit rows, e.g. for parties with children. */
+    AVOID_EXIT_ROWS
+}
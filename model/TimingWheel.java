@@ -0,0 +1,179 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four wheels of 64 slots, each slot of a wheel
+ * spanning one full turn of the wheel below it.
+ *
+ * Scheduling and cancelling are O(1) (a linked-list insert or unlink), and
+ * each tick only touches the one slot that is due, plus an occasional
+ * cascade of a higher slot into the wheels below. That keeps tens of
+ * thousands of pending timeouts cheap, where a timer or heap entry per
+ * timeout would not be. With a 10 ms tick the wheels cover about 46 hours;
+ * longer delays are parked and re-placed as time advances.
+ *
+ * The owner calls {@link #advance(long)} periodically (see SeatHoldManager);
+ * expired payloads are handed to the callback on that thread, outside the lock.
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+
+    /** Handle for a scheduled payload. */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long deadlineTick;
+        private Timeout<T> prev, next;
+        private Slot<T> slot;
+
+        private Timeout(T payload, long deadlineTick) {
+            this.payload = payload;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    // Doubly linked list so a cancelled timeout unlinks itself in O(1)
+    private static final class Slot<T> {
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = null;
+            timeout.next = head;
+            if (head != null) {
+                head.prev = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.prev = timeout.next = null;
+            timeout.slot = null;
+        }
+
+        Timeout<T> drain() {
+            Timeout<T> all = head;
+            head = null;
+            return all;
+        }
+    }
+
+    private final long tickNanos;
+    private final long startNanos;
+    private final Consumer<T> onExpire;
+    private final Slot<T>[][] wheels;
+    private long currentTick = 0;
+    private int size = 0;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tick, TimeUnit unit, Consumer<T> onExpire) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.startNanos = System.nanoTime();
+        this.onExpire = onExpire;
+        this.wheels = (Slot<T>[][]) new Slot<?>[LEVELS][SLOTS];
+        for (Slot<T>[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                wheel[i] = new Slot<>();
+            }
+        }
+    }
+
+    /** Fires the payload once the delay has passed, rounded up to the next tick. */
+    public synchronized Timeout<T> schedule(T payload, long delay, TimeUnit unit) {
+        long ticks = Math.max(1, (unit.toNanos(delay) + tickNanos - 1) / tickNanos);
+        Timeout<T> timeout = new Timeout<>(payload, currentTick + ticks);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** @return true if the timeout was still pending and will now never fire */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot == null) {
+            return false;
+        }
+        timeout.slot.remove(timeout);
+        size--;
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /** Moves the wheel up to the given System.nanoTime() and fires everything that became due. */
+    public void advance(long nowNanos) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = (nowNanos - startNanos) / tickNanos;
+            while (currentTick < targetTick) {
+                currentTick++;
+                // Higher wheels first, so their timeouts can drop all the way down to this tick
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                        cascade(level);
+                    }
+                }
+                Slot<T> due = wheels[0][(int) (currentTick & (SLOTS - 1))];
+                for (Timeout<T> t = due.drain(); t != null; ) {
+                    Timeout<T> next = t.next;
+                    t.prev = t.next = null;
+                    t.slot = null;
+                    size--;
+                    expired.add(t.payload);
+                    t = next;
+                }
+            }
+        }
+        for (T payload : expired) {
+            onExpire.accept(payload);
+        }
+    }
+
+    // Re-places every timeout of the current slot of the given wheel into the wheels below
+    private void cascade(int level) {
+        int index = (int) ((currentTick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+        for (Timeout<T> t = wheels[level][index].drain(); t != null; ) {
+            Timeout<T> next = t.next;
+            place(t);
+            t = next;
+        }
+    }
+
+    // Lowest wheel whose higher digits match the current tick; the slot is the deadline's digit there
+    private void place(Timeout<T> timeout) {
+        long deadline = Math.max(timeout.deadlineTick, currentTick);
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = SLOT_BITS * (level + 1);
+            if ((deadline >>> shift) == (currentTick >>> shift)) {
+                int index = (int) ((deadline >>> (SLOT_BITS * level)) & (SLOTS - 1));
+                wheels[level][index].add(timeout);
+                return;
+            }
+        }
+        // Beyond the top wheel: park in the next top slot to cascade, which comes before the deadline
+        int top = SLOT_BITS * (LEVELS - 1);
+        int index = (int) (((currentTick >>> top) + 1) & (SLOTS - 1));
+        wheels[LEVELS - 1][index].add(timeout);
+    }
+}
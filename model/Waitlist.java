@@ -0,0 +1,179 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Passengers waiting for a seat on a full flight.
+ *
+ * Waiting passengers sit in a heap ordered by fare paid (highest first) and
+ * then by request time, so handing a freed seat to the next one is an
+ * O(log n) poll however long the list grows during a disruption. Cancelling
+ * only marks the entry; it is dropped when it reaches the top of the heap.
+ *
+ * Passengers sold a place within the inventory's overbooking margin are
+ * already confirmed, so they get freed seats first, in the order they were
+ * sold.
+ */
+public class Waitlist {
+    /** Highest fare first, then earliest request, then join order. */
+    private static final Comparator<Entry> PRIORITY =
+        Comparator.comparingDouble(Entry::getFare).reversed()
+                  .thenComparingLong(Entry::getRequestedAtMillis)
+                  .thenComparingLong(Entry::getId);
+
+    public enum Status { WAITING, CONFIRMED_NO_SEAT, SEATED, CANCELLED }
+
+    public static final class Entry {
+        private final long id;
+        private final String passengerName;
+        private final double fare;
+        private final long requestedAtMillis;
+        private volatile Status status;
+        private volatile String seatId;
+
+        private Entry(long id, String passengerName, double fare, long requestedAtMillis, Status status) {
+            this.id = id;
+            this.passengerName = passengerName;
+            this.fare = fare;
+            this.requestedAtMillis = requestedAtMillis;
+            this.status = status;
+        }
+
+        public long getId() { return id; }
+        public String getPassengerName() { return passengerName; }
+        public double getFare() { return fare; }
+        public long getRequestedAtMillis() { return requestedAtMillis; }
+        public Status getStatus() { return status; }
+        /** The seat given on promotion, or null while still waiting. */
+        public String getSeatId() { return seatId; }
+
+        @Override
+        public String toString() {
+            return passengerName + " (" + status + (seatId == null ? "" : ", seat " + seatId) + ")";
+        }
+    }
+
+    private final PriorityQueue<Entry> waiting = new PriorityQueue<>(PRIORITY);
+    private final Deque<Entry> confirmedNoSeat = new ArrayDeque<>();
+    private final CopyOnWriteArrayList<Consumer<Entry>> promotionListeners = new CopyOnWriteArrayList<>();
+    private long nextId = 1;
+    private int waitingCount = 0;
+
+    /**
+     * Adds a passenger to a full flight. If the inventory's overbooking margin
+     * still has room the passenger is confirmed without a seat; otherwise they
+     * wait.
+     *
+     * @throws IllegalStateException if the flight still has a free seat, which should be booked instead
+     */
+    public synchronized Entry join(SeatInventory inventory, String passengerName, double fare) {
+        if (passengerName == null || passengerName.isBlank()) {
+            throw new IllegalArgumentException("Passenger name is required");
+        }
+        if (inventory.remaining() > 0) {
+            throw new IllegalStateException("The flight still has free seats; book one instead of waiting");
+        }
+        if (inventory.sellWithoutSeat()) {
+            Entry entry = new Entry(nextId++, passengerName, fare, System.currentTimeMillis(), Status.CONFIRMED_NO_SEAT);
+            confirmedNoSeat.addLast(entry);
+            return entry;
+        }
+        Entry entry = new Entry(nextId++, passengerName, fare, System.currentTimeMillis(), Status.WAITING);
+        waiting.add(entry);
+        waitingCount++;
+        return entry;
+    }
+
+    /** @return true if the entry was still waiting or unseated and is now cancelled */
+    public synchronized boolean cancel(SeatInventory inventory, Entry entry) {
+        if (entry.status == Status.WAITING) {
+            waitingCount--; // removed from the heap when it reaches the top
+        } else if (entry.status == Status.CONFIRMED_NO_SEAT && confirmedNoSeat.remove(entry)) {
+            inventory.cancelWithoutSeat();
+        } else {
+            return false;
+        }
+        entry.status = Status.CANCELLED;
+        return true;
+    }
+
+    /**
+     * Gives a seat that was just freed to the next passenger in line and
+     * books it for them.
+     *
+     * @return the promoted entry, or null if nobody is waiting or the seat was taken meanwhile
+     */
+    public Entry promote(SeatInventory inventory, int ordinal) {
+        Entry promoted;
+        synchronized (this) {
+            promoted = confirmedNoSeat.peekFirst();
+            if (promoted != null) {
+                if (!inventory.assignWithoutSeat(ordinal)) {
+                    return null;
+                }
+                confirmedNoSeat.pollFirst();
+            } else {
+                promoted = pollWaiting();
+                if (promoted == null) {
+                    return null;
+                }
+                if (!inventory.book(ordinal)) {
+                    waiting.add(promoted);
+                    waitingCount++;
+                    return null;
+                }
+            }
+            promoted.seatId = inventory.seatId(ordinal);
+            promoted.status = Status.SEATED;
+        }
+        for (Consumer<Entry> listener : promotionListeners) {
+            listener.accept(promoted);
+        }
+        return promoted;
+    }
+
+    // Top live entry, dropping cancelled ones on the way
+    private Entry pollWaiting() {
+        Entry entry;
+        while ((entry = waiting.poll()) != null) {
+            if (entry.status == Status.WAITING) {
+                waitingCount--;
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /** Called after a passenger is seated by {@link #promote}, outside the waitlist's lock. */
+    public void addPromotionListener(Consumer<Entry> listener) {
+        promotionListeners.add(listener);
+    }
+
+    /** Passengers waiting for a seat, not counting those confirmed without one. */
+    public synchronized int getWaitingCount() {
+        return waitingCount;
+    }
+
+    public synchronized int getConfirmedWithoutSeatCount() {
+        return confirmedNoSeat.size();
+    }
+
+    /** 1-based place in the queue of a waiting entry, or -1. O(n); meant for display. */
+    public synchronized int positionOf(Entry entry) {
+        if (entry.status != Status.WAITING) {
+            return -1;
+        }
+        int ahead = 0;
+        for (Entry other : waiting) {
+            if (other.status == Status.WAITING && PRIORITY.compare(other, entry) < 0) {
+                ahead++;
+            }
+        }
+        return ahead + 1;
+    }
+}